@@ -0,0 +1,18 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Per-thread allocation counter shared by the benchmark and runner tools.
+ */
+final class Allocation {
+    private Allocation() {}
+
+    /** Bytes allocated so far by the current thread, or -1 if unsupported. */
+    static long allocatedBytes() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+/**
+ * Barnes-Hut quadtree for approximating gravitational pull in O(n log n).
+ *
+ * The tree is rebuilt every tick into flat parallel arrays that are reused between
+ * builds, so steady-state ticks do not allocate. A cell whose size over distance is
+ * below theta is treated as a single point mass at its center of mass.
+ */
+final class BarnesHut {
+    /** Cells smaller than this stop subdividing; coincident bodies share one leaf. */
+    private static final double MIN_HALF = 1e-3;
+    /** Marks a leaf with no body. */
+    private static final int EMPTY = -1;
+
+    private final double theta;
+
+    // ----- Nodes (flat arrays indexed by node id; node 0 is the root) -----
+    private double[] cellX = new double[64], cellY = new double[64], half = new double[64];
+    private double[] mass = new double[64], comX = new double[64], comY = new double[64];
+    /** Id of the first of four children (NW, NE, SW, SE), or -1 for a leaf. */
+    private int[] child = new int[64];
+    /** Body index held by a leaf, or EMPTY. */
+    private int[] body = new int[64];
+    private int nodes;
+
+    // ----- Bodies (indexed like the arrays passed to build) -----
+    /** Leaf each body ended up in; coincident bodies share one. */
+    private int[] leafOf = new int[64];
+    /** Each body's mass, so accel() can take it back out of its own leaf. */
+    private double[] ownMass = new double[64];
+
+    /** Traversal stack reused by accel(). */
+    private int[] stack = new int[64];
+
+    /** Result of the last accel() call. */
+    double ax, ay;
+
+    BarnesHut(double theta) {
+        this.theta = theta;
+    }
+
+    /**
+     * Ensures room for at least {@code need} nodes.
+     */
+    private void ensureNodes(int need) {
+        if (need <= child.length) return;
+        int cap = Math.max(need, child.length * 2);
+        cellX = Arrays.copyOf(cellX, cap);
+        cellY = Arrays.copyOf(cellY, cap);
+        half = Arrays.copyOf(half, cap);
+        mass = Arrays.copyOf(mass, cap);
+        comX = Arrays.copyOf(comX, cap);
+        comY = Arrays.copyOf(comY, cap);
+        child = Arrays.copyOf(child, cap);
+        body = Arrays.copyOf(body, cap);
+    }
+
+    /**
+     * Appends an empty leaf cell and returns its id.
+     */
+    private int newNode(double x, double y, double h) {
+        ensureNodes(nodes + 1);
+        int id = nodes++;
+        cellX[id] = x; cellY[id] = y; half[id] = h;
+        mass[id] = 0; comX[id] = 0; comY[id] = 0;
+        child[id] = -1;
+        body[id] = EMPTY;
+        return id;
+    }
+
+    /**
+     * Returns the child of node id whose quadrant contains (x, y).
+     */
+    private int quadrant(int id, double x, double y) {
+        int q = (x >= cellX[id] ? 1 : 0) + (y >= cellY[id] ? 2 : 0);
+        return child[id] + q;
+    }
+
+    /**
+     * Turns leaf id into an internal node with four empty children.
+     */
+    private void split(int id) {
+        double h = half[id] / 2;
+        double x = cellX[id], y = cellY[id];
+        int first = newNode(x - h, y - h, h);
+        newNode(x + h, y - h, h);
+        newNode(x - h, y + h, h);
+        newNode(x + h, y + h, h);
+        child[id] = first;
+    }
+
+    /**
+     * Rebuilds the tree over bodies [0, n) with the given positions and masses.
+     */
+    void build(double[] x, double[] y, double[] m, int n) {
+        nodes = 0;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]); maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]); maxY = Math.max(maxY, y[i]);
+        }
+        if (leafOf.length < n) {
+            leafOf = new int[Math.max(n, leafOf.length * 2)];
+            ownMass = new double[leafOf.length];
+        }
+        System.arraycopy(m, 0, ownMass, 0, n);
+        double h = Math.max(Math.max(maxX - minX, maxY - minY) / 2, 1) * 1.0001;
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, h);
+        for (int i = 0; i < n; i++) insert(i, x, y, m);
+        for (int id = 0; id < nodes; id++) {
+            if (mass[id] > 0) { comX[id] /= mass[id]; comY[id] /= mass[id]; }
+        }
+    }
+
+    /**
+     * Inserts body i, splitting occupied leaves until it has a cell of its own.
+     * Mass and mass-weighted position are accumulated on the way down; build() divides
+     * them into centers of mass once every body is in.
+     */
+    private void insert(int i, double[] x, double[] y, double[] m) {
+        int id = 0;
+        while (true) {
+            mass[id] += m[i];
+            comX[id] += m[i] * x[i];
+            comY[id] += m[i] * y[i];
+            if (child[id] >= 0) {
+                id = quadrant(id, x[i], y[i]);
+                continue;
+            }
+            if (body[id] == EMPTY) {
+                body[id] = i;
+                leafOf[i] = id;
+                return;
+            }
+            if (half[id] < MIN_HALF) { // coincident: leaf just carries the extra mass
+                leafOf[i] = id;
+                return;
+            }
+            int other = body[id];
+            body[id] = EMPTY;
+            split(id);
+            int c = quadrant(id, x[other], y[other]);
+            mass[c] = m[other];
+            comX[c] = m[other] * x[other];
+            comY[c] = m[other] * y[other];
+            body[c] = other;
+            leafOf[other] = c;
+            id = quadrant(id, x[i], y[i]);
+        }
+    }
+
+    /**
+     * Computes the pull on body i (excluding itself) into ax, ay as sum(M * d / (r^2 + soft2)^1.5).
+     * The caller multiplies by the gravitational constant. Only i's own mass is taken out of
+     * its leaf, so bodies coincident with it still pull on it.
+     */
+    void accel(int i, double px, double py, double soft2) {
+        double sx = 0, sy = 0;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int id = stack[--top];
+            double mm = mass[id];
+            if (mm == 0) continue;
+            double cx = comX[id], cy = comY[id];
+            if (id == leafOf[i]) {
+                double rest = mm - ownMass[i];
+                if (rest <= 0) continue; // i is alone in its leaf
+                cx = (cx * mm - ownMass[i] * px) / rest;
+                cy = (cy * mm - ownMass[i] * py) / rest;
+                mm = rest;
+            }
+            double dx = cx - px, dy = cy - py;
+            double r2 = dx * dx + dy * dy;
+            double size = half[id] * 2;
+            if (child[id] < 0 || size * size < theta * theta * r2) {
+                double d2 = r2 + soft2;
+                double inv = mm / (d2 * Math.sqrt(d2));
+                sx += dx * inv;
+                sy += dy * inv;
+            } else {
+                if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                int c = child[id];
+                stack[top++] = c;
+                stack[top++] = c + 1;
+                stack[top++] = c + 2;
+                stack[top++] = c + 3;
+            }
+        }
+        ax = sx;
+        ay = sy;
+    }
+}
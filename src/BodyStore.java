@@ -0,0 +1,185 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * Structure-of-arrays body storage: one primitive array per field instead of one
+ * Body object per comet. Stepping and culling walk the arrays linearly and allocate
+ * nothing, so a tick stays cache friendly at millions of bodies.
+ *
+ * Culling swap-removes (the last body fills the hole), so order is not preserved.
+ * The star is identified by its kind, not its position, so it is never culled.
+ */
+public final class BodyStore {
+    /** Kind indexes, matching the ordinal of Simulation.Kind. */
+    static final byte STAR = 0, COMET = 1;
+
+    /** Color indexes into PALETTE. */
+    static final byte RED = 0, BLACK = 1;
+    static final Color[] PALETTE = { Color.RED, Color.BLACK };
+
+    int[] cx, cy;     // center position
+    int[] vx, vy;     // pixels per tick
+    int[] radius;     // draw radius
+    byte[] kind;      // STAR or COMET
+    byte[] color;     // index into PALETTE
+    /** Logical number of bodies stored. */
+    int size;
+
+    /**
+     * Constructs an empty store with room for the given number of bodies.
+     */
+    public BodyStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        cx = new int[capacity];
+        cy = new int[capacity];
+        vx = new int[capacity];
+        vy = new int[capacity];
+        radius = new int[capacity];
+        kind = new byte[capacity];
+        color = new byte[capacity];
+    }
+
+    /** Returns the number of bodies stored. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles every column when full.
+     */
+    private void growIfFull() {
+        if (size == cx.length) ensureCapacity(size + 1);
+    }
+
+    /**
+     * Grows every column, in one copy each, so the store holds at least minCapacity bodies.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= cx.length) return;
+        int cap = Math.max(minCapacity, cx.length * 2);
+        cx = Arrays.copyOf(cx, cap);
+        cy = Arrays.copyOf(cy, cap);
+        vx = Arrays.copyOf(vx, cap);
+        vy = Arrays.copyOf(vy, cap);
+        radius = Arrays.copyOf(radius, cap);
+        kind = Arrays.copyOf(kind, cap);
+        color = Arrays.copyOf(color, cap);
+    }
+
+    /**
+     * Appends a body and returns its index.
+     */
+    public int add(byte k, int x, int y, int dx, int dy, int r, byte c) {
+        growIfFull();
+        int i = size++;
+        cx[i] = x; cy[i] = y;
+        vx[i] = dx; vy[i] = dy;
+        radius[i] = r;
+        kind[i] = k;
+        color[i] = c;
+        return i;
+    }
+
+    /**
+     * Appends n bodies of one kind, size and color whose positions and velocities are the
+     * first n entries of the given arrays, growing at most once and copying column-wise.
+     */
+    public void addAll(byte k, int[] x, int[] y, int[] dx, int[] dy, int n, int r, byte c) {
+        ensureCapacity(size + n);
+        System.arraycopy(x, 0, cx, size, n);
+        System.arraycopy(y, 0, cy, size, n);
+        System.arraycopy(dx, 0, vx, size, n);
+        System.arraycopy(dy, 0, vy, size, n);
+        Arrays.fill(radius, size, size + n, r);
+        Arrays.fill(kind, size, size + n, k);
+        Arrays.fill(color, size, size + n, c);
+        size += n;
+    }
+
+    /**
+     * Advances every body by one tick using its velocity.
+     */
+    public void step() {
+        step(0, size);
+    }
+
+    /**
+     * Advances bodies in [from, to) by one tick.
+     */
+    void step(int from, int to) {
+        int[] x = cx, y = cy, dx = vx, dy = vy;
+        for (int i = from; i < to; i++) {
+            x[i] += dx[i];
+            y[i] += dy[i];
+        }
+    }
+
+    /**
+     * Determines whether body i lies entirely outside a w x h area (the world).
+     */
+    boolean offScreen(int i, int w, int h) {
+        int r = radius[i];
+        return cx[i] + r < 0 || cx[i] - r > w || cy[i] + r < 0 || cy[i] - r > h;
+    }
+
+    /**
+     * Moves the last body into slot i and shrinks by one.
+     */
+    void swapRemove(int i) {
+        int last = --size;
+        if (i != last) {
+            cx[i] = cx[last]; cy[i] = cy[last];
+            vx[i] = vx[last]; vy[i] = vy[last];
+            radius[i] = radius[last];
+            kind[i] = kind[last];
+            color[i] = color[last];
+        }
+    }
+
+    /**
+     * Removes every off-screen comet in one pass by swap-removal. Returns how many were removed.
+     * Walks from the end, so the body swapped into a hole has always been tested already.
+     */
+    public int cull(int w, int h) {
+        int before = size;
+        for (int i = size - 1; i >= 0; i--) {
+            if (kind[i] != STAR && offScreen(i, w, h)) swapRemove(i);
+        }
+        return before - size;
+    }
+
+    /**
+     * Culls using precomputed flags for the first {@code marked} bodies; bodies added after
+     * the flags were computed are tested directly. Visits in the same order as
+     * {@link #cull(int, int)}, so both leave the store in the same state.
+     */
+    int cull(boolean[] mask, int marked, int w, int h) {
+        int before = size;
+        for (int i = size - 1; i >= 0; i--) {
+            boolean dead = i < marked ? mask[i] : kind[i] != STAR && offScreen(i, w, h);
+            if (dead) swapRemove(i);
+        }
+        return before - size;
+    }
+
+    /**
+     * Culls using the mask from {@link StepKernel#stepAndMark} for the first {@code marked}
+     * bodies; bodies added after it was computed are tested directly. Blocks with no hit are
+     * skipped whole. Visits in the same order as {@link #cull(int, int)}, so both leave the
+     * store in the same state.
+     */
+    int cull(StepKernel k, int marked, int w, int h) {
+        int before = size;
+        for (int i = size - 1; i >= marked; i--) {
+            if (kind[i] != STAR && offScreen(i, w, h)) swapRemove(i);
+        }
+        int[] m = k.mask;
+        for (int b = (marked + StepKernel.BLOCK - 1) / StepKernel.BLOCK - 1; b >= 0; b--) {
+            if (!k.hit[b]) continue;
+            for (int i = Math.min(marked, (b + 1) * StepKernel.BLOCK) - 1; i >= b * StepKernel.BLOCK; i--) {
+                if ((m[i] & kind[i]) != 0) swapRemove(i); // COMET is 1 and STAR is 0
+            }
+        }
+        return before - size;
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+/**
+ * Detects overlapping bodies after each step using a {@link SpatialGrid}.
+ *
+ * Modes: {@code star} lets the star absorb any comet that touches it;
+ * {@code all} additionally merges touching comets into one. Absorbed and merged-away
+ * bodies are flagged dead and removed by the tick's cull pass.
+ *
+ * The grid cell is twice the largest comet radius, so two touching comets are always in
+ * the same or adjacent cells and each comet only checks its 3x3 neighborhood. A merge can
+ * grow a comet past that radius and move it away from the cell it was filed under, so the
+ * neighborhood widens by both for the rest of the pass, and a comet that grows searches
+ * again: when the pass ends, no two live comets touch.
+ */
+final class Collisions {
+    private final boolean merge;
+    private final SpatialGrid grid = new SpatialGrid();
+
+    /** Total comets swallowed by a star. */
+    long absorbed;
+    /** Total comet pairs merged into one. */
+    long merged;
+
+    /** Largest comet radius this pass, including comets grown by merging. */
+    private int maxR;
+    /** Furthest, per axis, any merged comet has moved from where the grid filed it. */
+    private double drift;
+
+    // scratch copies of live body state; reused across ticks
+    private Simulation.Body[] refs = new Simulation.Body[0];
+    private double[] x = new double[0], y = new double[0];
+
+    Collisions(SimConfig cfg) {
+        this.merge = cfg.collisions.equals("all");
+    }
+
+    /**
+     * Resolves this tick's collisions, flagging removed bodies as dead.
+     */
+    void resolve(List<Simulation.Body> bodies) {
+        int n = bodies.size();
+        if (refs.length < n) {
+            int cap = Math.max(n, refs.length * 2);
+            refs = new Simulation.Body[cap];
+            x = new double[cap];
+            y = new double[cap];
+        }
+        int count = 0;
+        maxR = 1;
+        drift = 0;
+        for (Simulation.Body b : bodies) {
+            if (b.dead) continue;
+            refs[count] = b;
+            x[count] = b.cx;
+            y[count] = b.cy;
+            if (b.kind != Simulation.Kind.STAR) maxR = Math.max(maxR, b.radius);
+            count++;
+        }
+        grid.build(x, y, count, 2.0 * maxR);
+
+        for (int i = 0; i < count; i++) {
+            if (refs[i].kind == Simulation.Kind.STAR) absorbInto(refs[i]);
+        }
+        if (merge) {
+            for (int i = 0; i < count; i++) {
+                if (refs[i].kind != Simulation.Kind.STAR && !refs[i].dead) mergeNeighbors(i);
+            }
+        }
+        Arrays.fill(refs, 0, count, null); // don't pin culled bodies
+    }
+
+    /** True if two bodies' circles overlap. */
+    private static boolean touching(Simulation.Body a, Simulation.Body b) {
+        double dx = a.cx - b.cx, dy = a.cy - b.cy;
+        double r = a.radius + b.radius;
+        return dx * dx + dy * dy < r * r;
+    }
+
+    /**
+     * Lets the star swallow every comet it overlaps. Scans only the cells its circle can reach.
+     */
+    private void absorbInto(Simulation.Body star) {
+        double reach = star.radius + maxR;
+        int gx0 = grid.cellOf(star.cx - reach), gx1 = grid.cellOf(star.cx + reach);
+        int gy0 = grid.cellOf(star.cy - reach), gy1 = grid.cellOf(star.cy + reach);
+        for (int gy = gy0; gy <= gy1; gy++) {
+            for (int gx = gx0; gx <= gx1; gx++) {
+                for (int j = grid.first(grid.bucket(gx, gy)); j >= 0; j = grid.next(j)) {
+                    Simulation.Body c = refs[j];
+                    if (c.dead || c.kind == Simulation.Kind.STAR || !touching(star, c)) continue;
+                    star.mass += c.mass;
+                    c.dead = true;
+                    absorbed++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges comet i with every live comet it touches. The heavier body survives, and searches
+     * again from its new position and size; momentum and area are conserved. Until a merge,
+     * the reach spans the 3x3 cell neighborhood.
+     */
+    private void mergeNeighbors(int i) {
+        Simulation.Body a = refs[i];
+        search:
+        while (true) {
+            double reach = a.radius + maxR + drift;
+            int gx0 = grid.cellOf(a.cx - reach), gx1 = grid.cellOf(a.cx + reach);
+            int gy0 = grid.cellOf(a.cy - reach), gy1 = grid.cellOf(a.cy + reach);
+            for (int gy = gy0; gy <= gy1; gy++) {
+                for (int gx = gx0; gx <= gx1; gx++) {
+                    for (int j = grid.first(grid.bucket(gx, gy)); j >= 0; j = grid.next(j)) {
+                        if (j == i) continue;
+                        Simulation.Body b = refs[j];
+                        if (b.dead || b.kind == Simulation.Kind.STAR || !touching(a, b)) continue;
+                        if (b.mass > a.mass) {
+                            absorbComet(b, j, a);
+                            i = j; // a is gone; b carries on
+                            a = b;
+                        } else {
+                            absorbComet(a, i, b);
+                        }
+                        continue search;
+                    }
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * Folds comet b into comet a, which is at index ia, and widens the merge search if a
+     * outgrew the largest radius or moved further from its grid cell than any comet yet.
+     */
+    private void absorbComet(Simulation.Body a, int ia, Simulation.Body b) {
+        double m = a.mass + b.mass;
+        double wa = m > 0 ? a.mass / m : 0.5;
+        double wb = 1 - wa;
+        a.cx = a.cx * wa + b.cx * wb;
+        a.cy = a.cy * wa + b.cy * wb;
+        a.vx = a.vx * wa + b.vx * wb;
+        a.vy = a.vy * wa + b.vy * wb;
+        a.mass = m;
+        a.radius = (int) Math.round(Math.sqrt((double) a.radius * a.radius + (double) b.radius * b.radius));
+        b.dead = true;
+        merged++;
+        maxR = Math.max(maxR, a.radius);
+        drift = Math.max(drift, Math.max(Math.abs(a.cx - x[ia]), Math.abs(a.cy - y[ia])));
+    }
+}
@@ -0,0 +1,88 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * Watches a config file on a daemon thread and reloads it whenever it changes.
+ * A file that fails to load, or whose live keys fail {@link SimConfig#checkReload}, is
+ * reported and skipped; a good one is handed to the listener, which must not block.
+ */
+final class ConfigWatcher implements Closeable {
+    /** Editors often save in several writes; wait this long for them to settle. */
+    private static final long SETTLE_MS = 50;
+
+    private final Path file;
+    private final WatchService watch;
+    private final Consumer<Properties> listener;
+    private final Thread thread;
+
+    ConfigWatcher(Path file, Consumer<Properties> listener) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.listener = listener;
+        Path dir = this.file.getParent();
+        watch = dir.getFileSystem().newWatchService();
+        dir.register(watch, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::run, "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for events on the file's directory and reloads when one names the file.
+     */
+    private void run() {
+        try {
+            while (true) {
+                if (!drain(watch.take())) continue;
+                Thread.sleep(SETTLE_MS);
+                for (WatchKey k; (k = watch.poll()) != null; ) drain(k);
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /** Consumes a key's events and re-arms it; returns true if any of them was for our file. */
+    private boolean drain(WatchKey key) {
+        boolean hit = false;
+        for (WatchEvent<?> e : key.pollEvents()) {
+            if (file.getFileName().equals(e.context())) hit = true;
+        }
+        key.reset();
+        return hit;
+    }
+
+    /** Parses the file and passes the result on if it is usable. */
+    private void reload() {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            p.load(in);
+        } catch (IOException e) {
+            System.err.println("Config reload failed, keeping current settings: " + e);
+            return;
+        }
+        try {
+            SimConfig.checkReload(p);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Config reload rejected, keeping current settings: " + e.getMessage());
+            return;
+        }
+        listener.accept(p);
+    }
+
+    @Override
+    public void close() throws IOException {
+        watch.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compact binary log of what happened on each tick: which comets spawned (with their
+ * initial position and velocity) and how many bodies were culled. Everything else in a
+ * tick follows deterministically from those, so a log replays the exact same run.
+ *
+ * Format: magic "MMEV", int version, long seed, then one block per tick that had any
+ * events: varint tick delta, varint spawn count, four zigzag varints (cx, cy, vx, vy) per
+ * spawn, varint cull count. Quiet ticks take no space at all.
+ */
+final class EventLog {
+    private static final int MAGIC = 0x4D4D4556; // "MMEV"
+    private static final int VERSION = 1;
+
+    private EventLog() {}
+
+    /**
+     * Records events as the simulation runs. Spawns are buffered until the tick ends.
+     */
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private int[] spawns = new int[64]; // cx, cy, vx, vy per spawn
+        private int spawnInts;
+        private long lastTick;
+
+        Writer(String path, long seed) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+        }
+
+        /** Notes one spawn on the current tick. */
+        void spawn(int cx, int cy, int vx, int vy) {
+            if (spawnInts + 4 > spawns.length) spawns = Arrays.copyOf(spawns, spawns.length * 2);
+            spawns[spawnInts++] = cx;
+            spawns[spawnInts++] = cy;
+            spawns[spawnInts++] = vx;
+            spawns[spawnInts++] = vy;
+        }
+
+        /** Writes the block for a finished tick, if anything happened on it. */
+        void endTick(long tick, int culls) throws IOException {
+            if (spawnInts == 0 && culls == 0) return;
+            writeVar(out, tick - lastTick);
+            writeVar(out, spawnInts / 4);
+            for (int i = 0; i < spawnInts; i++) writeVar(out, zigzag(spawns[i]));
+            writeVar(out, culls);
+            lastTick = tick;
+            spawnInts = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** Receives replayed spawns. */
+    interface SpawnSink {
+        void spawn(int cx, int cy, int vx, int vy);
+    }
+
+    /**
+     * Reads a log back tick by tick.
+     */
+    static final class Reader implements Closeable {
+        private final String path;
+        private final DataInputStream in;
+        /** Seed the recorded run used. */
+        final long seed;
+        /** Tick of the next block not yet consumed, or Long.MAX_VALUE at end of log. */
+        private long nextTick;
+        private int[] spawns = new int[64];
+        private int spawnCount;
+        private int culls;
+
+        Reader(String path) throws IOException {
+            this.path = path;
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16));
+            if (in.readInt() != MAGIC) throw new IOException(path + " is not a MassiveMotion event log");
+            int v = in.readInt();
+            if (v != VERSION) throw new IOException("Unsupported event log version " + v);
+            seed = in.readLong();
+            readBlock(0);
+        }
+
+        /**
+         * Loads the next block, or marks end of log. A block cut off partway, as left by a
+         * run that was killed before its writer was closed, also ends the log, with a warning.
+         */
+        private void readBlock(long prevTick) throws IOException {
+            in.mark(1);
+            if (in.read() < 0) {
+                nextTick = Long.MAX_VALUE;
+                return;
+            }
+            in.reset();
+            try {
+                long delta = readVar(in);
+                spawnCount = (int) readVar(in);
+                if (spawnCount * 4 > spawns.length) spawns = new int[spawnCount * 4];
+                for (int i = 0; i < spawnCount * 4; i++) spawns[i] = unzigzag(readVar(in));
+                culls = (int) readVar(in);
+                nextTick = prevTick + delta;
+            } catch (EOFException e) {
+                System.err.println("Event log " + path + " ends in a partial block after tick " + prevTick
+                    + "; replaying up to there");
+                nextTick = Long.MAX_VALUE;
+            }
+        }
+
+        /** True once every block has been consumed. */
+        boolean done() {
+            return nextTick == Long.MAX_VALUE;
+        }
+
+        /** Delivers the spawns recorded for the given tick (none if it was quiet). */
+        void spawns(long tick, SpawnSink sink) {
+            if (tick != nextTick) return;
+            for (int i = 0; i < spawnCount; i++) {
+                sink.spawn(spawns[4 * i], spawns[4 * i + 1], spawns[4 * i + 2], spawns[4 * i + 3]);
+            }
+        }
+
+        /**
+         * Returns the cull count recorded for the given tick and moves past its block.
+         */
+        int endTick(long tick) throws IOException {
+            if (tick != nextTick) return 0;
+            int c = culls;
+            readBlock(tick);
+            return c;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // ----- Encoding -----
+    /** Maps small negative ints to small unsigned values: 0, -1, 1, -2 -> 0, 1, 2, 3. */
+    static long zigzag(int v) {
+        return ((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL;
+    }
+
+    static int unzigzag(long v) {
+        int u = (int) v;
+        return (u >>> 1) ^ -(u & 1);
+    }
+
+    /** Writes an unsigned LEB128 varint. */
+    static void writeVar(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    /** Reads an unsigned LEB128 varint. */
+    static long readVar(DataInputStream in) throws IOException {
+        long v = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+            shift += 7;
+        }
+    }
+}
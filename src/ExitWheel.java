@@ -0,0 +1,164 @@
+import java.util.Arrays;
+
+/**
+ * Culling by schedule instead of by scan, for {@code cull = wheel} on the SoA store.
+ *
+ * Without gravity or collisions every body moves in a straight line at constant integer
+ * velocity, so the tick on which a comet leaves the window is known when it spawns. Each
+ * comet is filed under that tick in a hierarchical timing wheel (4 levels of 256 slots,
+ * covering 2^32 ticks), and each tick only visits the comets that expire on it. Bodies are
+ * never stepped either: the store keeps each body's position at its birth tick, and the
+ * current position is evaluated on demand as {@code p0 + v * (tick - born)}.
+ *
+ * The exit tick is the first tick on which the body fails the same off-screen test the scan
+ * uses, so both culls remove the same bodies on the same ticks.
+ */
+final class ExitWheel {
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int NONE = -1;
+
+    /** Chain heads: slot s of level l is heads[l * SLOTS + s]; NONE if empty. */
+    private final int[] heads = new int[LEVELS * SLOTS];
+    /** Per timer id: exit tick, next id in the same slot, and the body's store index. */
+    private long[] exit = new long[256];
+    private int[] next = new int[256];
+    private int[] indexOf = new int[256];
+    /** Head of the chain of unused ids (through next), and ids ever handed out. */
+    private int freeId = NONE;
+    private int ids;
+    /** Next tick to be expired; insertions are placed relative to it. */
+    private long now = 1;
+
+    /** Per store index: the body's timer id (NONE if it never leaves) and birth tick. */
+    private int[] idAt = new int[256];
+    private long[] born = new long[256];
+
+    ExitWheel() {
+        Arrays.fill(heads, NONE);
+    }
+
+    // ----- Positions -----
+    /** x of store body i at the end of the given tick. */
+    int x(BodyStore s, int i, long tick) {
+        return (int) (s.cx[i] + s.vx[i] * (tick - born[i]));
+    }
+
+    /** y of store body i at the end of the given tick. */
+    int y(BodyStore s, int i, long tick) {
+        return (int) (s.cy[i] + s.vy[i] * (tick - born[i]));
+    }
+
+    // ----- Scheduling -----
+    /**
+     * Registers store body i, born (at its current position) on the given tick, and files its
+     * exit if it is a comet that ever leaves the w x h window.
+     */
+    void add(BodyStore s, int i, long bornTick, int w, int h) {
+        if (i >= idAt.length) {
+            int cap = Math.max(i + 1, idAt.length * 2);
+            idAt = Arrays.copyOf(idAt, cap);
+            born = Arrays.copyOf(born, cap);
+        }
+        born[i] = bornTick;
+        idAt[i] = NONE;
+        if (s.kind[i] == BodyStore.STAR) return;
+        long k = ticksToExit(s.cx[i], s.cy[i], s.vx[i], s.vy[i], s.radius[i], w, h);
+        if (k < 0 || k >= 1L << (BITS * LEVELS)) return;
+        int id = newId();
+        exit[id] = bornTick + k;
+        indexOf[id] = i;
+        idAt[i] = id;
+        file(id);
+    }
+
+    /**
+     * Ticks after birth until the body first fails the off-screen test, or -1 if never.
+     * Each edge's test is linear in time, so it first holds at a closed-form tick.
+     */
+    static long ticksToExit(int x, int y, int vx, int vy, int r, int w, int h) {
+        if (x + r < 0 || x - r > w || y + r < 0 || y - r > h) return 0;
+        long k = Long.MAX_VALUE;
+        if (vx < 0) k = Math.min(k, (x + r) / -vx + 1);          // x + r < 0
+        if (vx > 0) k = Math.min(k, (w + r - x) / vx + 1);       // x - r > w
+        if (vy < 0) k = Math.min(k, (y + r) / -vy + 1);          // y + r < 0
+        if (vy > 0) k = Math.min(k, (h + r - y) / vy + 1);       // y - r > h
+        return k == Long.MAX_VALUE ? -1 : k;
+    }
+
+    private int newId() {
+        int id = freeId;
+        if (id != NONE) {
+            freeId = next[id];
+            return id;
+        }
+        if (ids == exit.length) {
+            int cap = ids * 2;
+            exit = Arrays.copyOf(exit, cap);
+            next = Arrays.copyOf(next, cap);
+            indexOf = Arrays.copyOf(indexOf, cap);
+        }
+        return ids++;
+    }
+
+    /** Puts a timer in the slot its exit tick falls in, relative to now. */
+    private void file(int id) {
+        long t = exit[id];
+        long delta = Math.max(0, t - now);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) level++;
+        int slot = level * SLOTS + ((int) (t >>> (BITS * level)) & MASK);
+        next[id] = heads[slot];
+        heads[slot] = id;
+    }
+
+    // ----- Expiry -----
+    /**
+     * Removes every body whose exit tick is {@code tick} from the store by swap-removal and
+     * returns how many there were. Must be called once per tick, in order.
+     */
+    int expire(long tick, BodyStore s) {
+        now = tick;
+        // a level's slot is pushed down when every level below it has wrapped around
+        for (int level = 1; level < LEVELS && (tick & ((1L << (BITS * level)) - 1)) == 0; level++) {
+            cascade(level * SLOTS + ((int) (tick >>> (BITS * level)) & MASK));
+        }
+        int slot = (int) tick & MASK;
+        int id = heads[slot];
+        heads[slot] = NONE;
+        int removed = 0;
+        while (id != NONE) {
+            int following = next[id];
+            remove(s, indexOf[id]);
+            next[id] = freeId;
+            freeId = id;
+            removed++;
+            id = following;
+        }
+        now = tick + 1;
+        return removed;
+    }
+
+    /** Detaches a slot's chain and refiles each timer against the current tick. */
+    private void cascade(int slot) {
+        int id = heads[slot];
+        heads[slot] = NONE;
+        while (id != NONE) {
+            int following = next[id];
+            file(id);
+            id = following;
+        }
+    }
+
+    /** Swap-removes store index i, keeping the moved body's timer pointing at it. */
+    private void remove(BodyStore s, int i) {
+        int last = s.size - 1;
+        s.swapRemove(i);
+        if (i == last) return;
+        idAt[i] = idAt[last];
+        born[i] = born[last];
+        if (idAt[i] != NONE) indexOf[idAt[i]] = i;
+    }
+}
@@ -0,0 +1,33 @@
+import java.util.Arrays;
+
+/**
+ * Immutable-once-published copy of what needs to be drawn for one tick: each body's
+ * rounded center, radius and RGB color. Written only by the simulation thread while it
+ * owns the frame, read only by the renderer after it has been handed over.
+ */
+final class Frame {
+    int[] x = new int[256], y = new int[256], r = new int[256], rgb = new int[256];
+    /** Number of bodies in this frame. */
+    int count;
+    /** Tick this frame was captured after. */
+    long tick;
+
+    /** Empties the frame before it is refilled. */
+    void clear(long tick) {
+        this.count = 0;
+        this.tick = tick;
+    }
+
+    /** Appends one body. */
+    void add(int cx, int cy, int radius, int color) {
+        if (count == x.length) {
+            int cap = count * 2;
+            x = Arrays.copyOf(x, cap);
+            y = Arrays.copyOf(y, cap);
+            r = Arrays.copyOf(r, cap);
+            rgb = Arrays.copyOf(rgb, cap);
+        }
+        x[count] = cx; y[count] = cy; r[count] = radius; rgb[count] = color;
+        count++;
+    }
+}
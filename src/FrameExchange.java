@@ -0,0 +1,41 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffer that hands frames from the simulation thread to the renderer.
+ *
+ * The writer always owns a back frame and the reader always owns a front frame; the third
+ * frame sits in the middle slot. publish() swaps the back frame into the middle and marks it
+ * fresh; front() swaps a fresh middle frame out for the reader's old one. Both are a single
+ * atomic getAndSet, neither side ever waits, and a frame is never written while being read.
+ * If the writer publishes twice before the reader looks, the older frame is simply dropped.
+ */
+final class FrameExchange {
+    /** Bit set in the middle slot when it holds a frame the reader has not taken yet. */
+    private static final int FRESH = 4;
+
+    private final Frame[] frames = { new Frame(), new Frame(), new Frame() };
+    /** Index of the middle frame, plus FRESH. */
+    private final AtomicInteger middle = new AtomicInteger(1);
+    /** Writer-owned frame index; touched only by the simulation thread. */
+    private int back = 0;
+    /** Reader-owned frame index; touched only by the rendering thread. */
+    private int front = 2;
+
+    /** The frame the writer may fill. Simulation thread only. */
+    Frame back() {
+        return frames[back];
+    }
+
+    /** Makes the back frame visible to the reader and takes a free one. Simulation thread only. */
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & 3;
+    }
+
+    /** The most recently published frame. Rendering thread only. */
+    Frame front() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & 3;
+        }
+        return frames[front];
+    }
+}
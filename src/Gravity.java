@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+/**
+ * Applies one tick of gravitational acceleration to the velocities of list bodies.
+ * Positions are then advanced by the normal step, which together makes a
+ * semi-implicit Euler integrator.
+ *
+ * Modes: {@code star} pulls every comet toward the star only (O(n));
+ * {@code nbody} lets every body pull every other through a Barnes-Hut tree (O(n log n)).
+ *
+ * Units: positions are pixels, one tick is {@code seconds_per_tick} seconds and one pixel is
+ * {@code meters_per_pixel} meters, so masses from the config file are in kilograms.
+ */
+final class Gravity {
+    /** Newton's gravitational constant, m^3 kg^-1 s^-2. */
+    static final double G = 6.674e-11;
+
+    private final boolean nbody;
+    /** G converted to pixels and ticks: dv[px/tick] = k * M * d / r^3 with d, r in pixels. */
+    private final double k;
+    /** Softening length squared (px^2); keeps close passes finite. */
+    private final double soft2;
+    private final BarnesHut tree;
+
+    // scratch copies of body state for the tree; reused across ticks
+    private Simulation.Body[] refs = new Simulation.Body[0];
+    private double[] x = new double[0], y = new double[0], m = new double[0];
+
+    Gravity(SimConfig cfg) {
+        this.nbody = cfg.gravity.equals("nbody");
+        double s = cfg.metersPerPixel;
+        double dt = cfg.secondsPerTick;
+        this.k = G * dt * dt / (s * s * s);
+        this.soft2 = (double) cfg.starSize * cfg.starSize;
+        this.tree = nbody ? new BarnesHut(cfg.theta) : null;
+    }
+
+    /**
+     * Adds this tick's gravitational change in velocity to every body.
+     */
+    void accelerate(List<Simulation.Body> bodies) {
+        if (nbody) accelerateAll(bodies);
+        else accelerateTowardStar(bodies);
+    }
+
+    /**
+     * Star-only pull: each comet accelerates toward every STAR body; stars are left alone.
+     */
+    private void accelerateTowardStar(List<Simulation.Body> bodies) {
+        Simulation.Body star = null;
+        for (Simulation.Body b : bodies) {
+            if (b.kind == Simulation.Kind.STAR) { star = b; break; }
+        }
+        if (star == null) return;
+        double gm = k * star.mass;
+        for (Simulation.Body b : bodies) {
+            if (b == star) continue;
+            double dx = star.cx - b.cx, dy = star.cy - b.cy;
+            double d2 = dx * dx + dy * dy + soft2;
+            double inv = gm / (d2 * Math.sqrt(d2));
+            b.vx += dx * inv;
+            b.vy += dy * inv;
+        }
+    }
+
+    /**
+     * Full n-body pull through the Barnes-Hut tree, including comets on the star.
+     * All accelerations are computed from the same positions before any velocity changes.
+     */
+    private void accelerateAll(List<Simulation.Body> bodies) {
+        int n = bodies.size();
+        if (refs.length < n) {
+            int cap = Math.max(n, refs.length * 2);
+            refs = new Simulation.Body[cap];
+            x = new double[cap];
+            y = new double[cap];
+            m = new double[cap];
+        }
+        int i = 0;
+        for (Simulation.Body b : bodies) {
+            refs[i] = b;
+            x[i] = b.cx; y[i] = b.cy; m[i] = b.mass;
+            i++;
+        }
+        tree.build(x, y, m, n);
+        for (i = 0; i < n; i++) {
+            tree.accel(i, x[i], y[i], soft2);
+            refs[i].vx += k * tree.ax;
+            refs[i].vy += k * tree.ay;
+        }
+        Arrays.fill(refs, 0, n, null); // don't pin culled bodies
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Runs a simulation for a fixed number of ticks with no window attached and
+ * reports throughput and steady-state allocation per tick.
+ * Usage: {@code java HeadlessRunner <config> <ticks>}
+ */
+public final class HeadlessRunner {
+    private HeadlessRunner() {}
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: HeadlessRunner <config> <ticks>");
+            System.exit(2);
+        }
+        String propPath = args[0];
+        long n = Long.parseLong(args[1].trim());
+
+        Simulation sim = new Simulation(SimConfig.load(propPath));
+        // first half warms up the pools and JIT; allocation is measured over the second half
+        long warm = n / 2;
+        long nanos = sim.run(warm);
+        long a0 = Allocation.allocatedBytes();
+        nanos += sim.run(n - warm);
+        long a1 = Allocation.allocatedBytes();
+        sim.close();
+
+        double secs = nanos / 1e9;
+        double bytesPerTick = (double) (a1 - a0) / Math.max(1, n - warm);
+        System.out.printf("seed=%d store=%s list=%s threads=%d ticks=%d bodies=%d time=%.3fs ticks/s=%.1f bytes/tick=%.1f%n",
+            sim.seed(), sim.config().storeType, sim.config().listType, sim.config().threads, sim.tickCount(), sim.bodyCount(), secs,
+            n / Math.max(secs, 1e-9), bytesPerTick);
+        TickMetrics m = sim.metrics();
+        if (m != null) {
+            System.out.printf("step p50/p99=%d/%dns spawn p50/p99=%d/%dns cull p50/p99=%d/%dns spawned=%d culled=%d list_op_steps=%d%n",
+                m.getStepP50Nanos(), m.getStepP99Nanos(), m.getSpawnP50Nanos(), m.getSpawnP99Nanos(),
+                m.getCullP50Nanos(), m.getCullP99Nanos(), m.getSpawned(), m.getCulled(), m.getListOpSteps());
+        }
+    }
+}
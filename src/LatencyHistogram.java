@@ -0,0 +1,68 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of nanosecond durations: exact below 16 ns, then 16 buckets per
+ * power of two (about 6% resolution). Recording is one atomic increment, so the tick
+ * thread can record while JMX or the CSV dumper reads.
+ */
+final class LatencyHistogram {
+    private static final int SUB = 16;
+    private static final int BUCKETS = SUB + (63 - 4) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Bucket index for a value. */
+    static int bucket(long v) {
+        if (v < SUB) return (int) Math.max(v, 0);
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        int m = (int) (v >>> (e - 4)) & (SUB - 1);
+        return SUB + (e - 4) * SUB + m;
+    }
+
+    /** Smallest value that falls in a bucket. */
+    static long lowerBound(int idx) {
+        if (idx < SUB) return idx;
+        int e = (idx - SUB) / SUB + 4;
+        int m = (idx - SUB) % SUB;
+        return (long) (SUB + m) << (e - 4);
+    }
+
+    /** Records one duration. */
+    void record(long nanos) {
+        counts.incrementAndGet(bucket(nanos));
+    }
+
+    /** Copies the current bucket counts into dst (length BUCKETS). */
+    void copyCounts(long[] dst) {
+        for (int i = 0; i < BUCKETS; i++) dst[i] = counts.get(i);
+    }
+
+    /** Fresh array sized for copyCounts. */
+    static long[] newCounts() {
+        return new long[BUCKETS];
+    }
+
+    /** Percentile (0..1) over all recorded values, in nanoseconds. */
+    long percentile(double q) {
+        long[] c = newCounts();
+        copyCounts(c);
+        return percentile(c, q);
+    }
+
+    /**
+     * Percentile (0..1) of a bucket-count array, reported as the bucket's lower bound.
+     * Returns 0 for an empty histogram.
+     */
+    static long percentile(long[] c, double q) {
+        long total = 0;
+        for (long x : c) total += x;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < c.length; i++) {
+            seen += c[i];
+            if (seen >= rank) return lowerBound(i);
+        }
+        return lowerBound(c.length - 1);
+    }
+}
@@ -1,11 +1,43 @@
+import java.util.Iterator;
+import java.util.function.Predicate;
+
 /**
  * Holds an interface to require all lists to have the methods below
+ * Lists are Iterable so callers can sweep them in one pass with for-each
+ * instead of calling get(i) for every index.
  */
-public interface List<T> {
+public interface List<T> extends Iterable<T> {
 
     public void add (int index, T element) throws IndexOutOfBoundsException;
     public boolean add (T element);
+
+    /**
+     * Appends every element of items, in order, as one bulk operation; items is left unchanged.
+     * Returns true if anything was added.
+     */
+    public boolean addAll (List<? extends T> items);
     public T get (int index) throws IndexOutOfBoundsException;
     public T remove (int index) throws IndexOutOfBoundsException;
     public int size ();
+
+    /**
+     * Returns a cursor over the elements from first to last.
+     * Its remove() deletes the element last returned by next() in O(1) for linked lists.
+     */
+    @Override
+    public Iterator<T> iterator ();
+
+    /**
+     * Removes every element matching the filter in a single pass, keeping the order of the rest.
+     * Returns true if anything was removed.
+     */
+    public boolean removeIf (Predicate<? super T> filter);
+
+    /**
+     * Returns the node hops (linked lists) or element shifts (array lists) performed so far
+     * by indexed get/add/remove and by growth, for correlating list type with tick cost.
+     * An iterator's remove counts the shifts it causes. Walking a cursor or a removeIf sweep
+     * is linear in every list and is not counted, so the counter stays comparable across types.
+     */
+    public long opSteps ();
 }
@@ -0,0 +1,392 @@
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * Micro-benchmark that drives every List implementation through the same access
+ * pattern the simulation tick uses, at body counts from 1k up to 1M.
+ *
+ * Each benchmark tick does exactly what {@link Simulation#tick()} does to the list:
+ * an iterator sweep that steps every body, a tail add for the new spawn, and a
+ * removeIf pass that culls bodies past the right edge. The world
+ * is n pixels wide and every body moves one pixel per tick, so one body spawns and
+ * one body is culled per tick and the population stays at n.
+ *
+ * Reports ns/tick and bytes allocated per tick for each (list, n) pair. Sizes that
+ * would take longer than the time budget for a single tick are skipped for that list.
+ *
+ * In {@code spawn} mode it instead measures the cost of a single tail add at each
+ * population size, which should stay flat as n grows.
+ *
+ * The pseudo-list {@code soa} runs the same workload on a {@link BodyStore} for comparison.
+ *
+ * In {@code threads} mode it runs the parallel tick ({@link ParallelTick}) at population
+ * maxN with 1, 2, 4, ... worker threads and reports how ns/tick scales.
+ *
+ * In {@code kernel} mode it measures only the step + off-screen phase, per body, three ways:
+ * the per-{@code Body} loop of the list store ({@code body}), the scalar SoA loops
+ * ({@code scalar}) and the {@link StepKernel} block kernel ({@code block}).
+ *
+ * In {@code handles} mode it reports ns per {@link MySlotMap} handle lookup and per removal
+ * by handle; {@link SlotMapCheck} checks that the handles resolve correctly.
+ *
+ * Usage: {@code java ListBenchmark [spawn|threads|kernel|handles] [maxN] [list,list,...]}
+ */
+public final class ListBenchmark {
+    private ListBenchmark() {}
+
+    /** Backing types accepted by ListFactory, in the order they are reported. */
+    static final String[] LISTS = { "arraylist", "single", "double", "dummyhead", "unrolled", "slotmap", "soa" };
+    /** Body counts to measure. */
+    static final int[] SIZES = { 1_000, 10_000, 100_000, 1_000_000 };
+
+    /** Minimum measured time per (list, n) pair. */
+    private static final long TARGET_NANOS = 500_000_000L;
+    /** Larger sizes are skipped once one tick exceeds this. */
+    private static final long MAX_TICK_NANOS = 1_000_000_000L;
+
+    /** One benchmark result row. */
+    static final class Result {
+        final String list;
+        final int n;
+        final long ticks;
+        final double nsPerTick;
+        final double bytesPerTick;
+
+        Result(String list, int n, long ticks, double nsPerTick, double bytesPerTick) {
+            this.list = list;
+            this.n = n;
+            this.ticks = ticks;
+            this.nsPerTick = nsPerTick;
+            this.bytesPerTick = bytesPerTick;
+        }
+    }
+
+    /**
+     * Fills a list with n comets spread evenly across a world n pixels wide.
+     */
+    static List<Simulation.Body> populate(String type, int n) {
+        List<Simulation.Body> list = ListFactory.fromProperty(type);
+        for (int i = n - 1; i >= 0; i--) {
+            list.add(new Simulation.Body(Simulation.Kind.COMET, i, 0, 1, 0, 0, Color.BLACK));
+        }
+        return list;
+    }
+
+    /** Culled bodies reused by the next spawn, as in Simulation. */
+    private static final ObjectPool<Simulation.Body> POOL = new ObjectPool<>();
+
+    /**
+     * One tick of the simulation's list access pattern over a world {@code w} wide.
+     */
+    static void tick(List<Simulation.Body> bodies, int w) {
+        for (Simulation.Body b : bodies) b.step();
+
+        Simulation.Body spawn = POOL.poll();
+        if (spawn == null) spawn = new Simulation.Body(Simulation.Kind.COMET, 0, 0, 1, 0, 0, Color.BLACK);
+        else spawn.reset(Simulation.Kind.COMET, 0, 0, 1, 0, 0, Color.BLACK);
+        bodies.add(spawn);
+
+        bodies.removeIf(b -> {
+            if (b.kind == Simulation.Kind.STAR || !b.offScreen(w, 1)) return false;
+            POOL.release(b);
+            return true;
+        });
+    }
+
+    /**
+     * Fills a SoA store with the same layout as {@link #populate}.
+     */
+    static BodyStore populateStore(int n) {
+        BodyStore store = new BodyStore(n + 1);
+        for (int i = n - 1; i >= 0; i--) {
+            store.add(BodyStore.COMET, i, 0, 1, 0, 0, BodyStore.BLACK);
+        }
+        return store;
+    }
+
+    /**
+     * The same tick as {@link #tick} on a SoA store.
+     */
+    static void tick(BodyStore store, int w) {
+        store.step();
+        store.add(BodyStore.COMET, 0, 0, 1, 0, 0, BodyStore.BLACK);
+        store.cull(w, 1);
+    }
+
+    /**
+     * Measures one (list, n) pair. Returns null if a single tick blows the time budget.
+     */
+    static Result measure(String type, int n) {
+        Runnable tick;
+        if (type.equals("soa")) {
+            BodyStore store = populateStore(n);
+            tick = () -> tick(store, n);
+        } else {
+            List<Simulation.Body> bodies = populate(type, n);
+            tick = () -> tick(bodies, n);
+        }
+
+        // warm-up: also tells us whether this size is feasible at all
+        long t0 = System.nanoTime();
+        tick.run();
+        long first = System.nanoTime() - t0;
+        if (first > MAX_TICK_NANOS) return null;
+        long warm = Math.min(1_000, Math.max(1, TARGET_NANOS / 4 / Math.max(first, 1)));
+        for (long k = 0; k < warm; k++) tick.run();
+
+        long ticks = 0;
+        long a0 = Allocation.allocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            tick.run();
+            ticks++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        long a1 = Allocation.allocatedBytes();
+
+        double bytes = a0 < 0 ? Double.NaN : (double) (a1 - a0) / ticks;
+        return new Result(type, n, ticks, (double) elapsed / ticks, bytes);
+    }
+
+    /** Appends measured per (list, n) pair in spawn mode. */
+    private static final int SPAWN_BATCH = 1_000;
+
+    /**
+     * Measures the cost of one tail add at population n, averaged over batches that are
+     * removed again afterwards (untimed) so n stays fixed. Returns null if one batch blows
+     * the budget.
+     */
+    static Result measureSpawn(String type, int n) {
+        List<Simulation.Body> bodies = populate(type, n);
+        Simulation.Body b = new Simulation.Body(Simulation.Kind.COMET, 0, 0, 1, 0, 0, Color.BLACK);
+
+        long t0 = System.nanoTime();
+        for (int k = 0; k < SPAWN_BATCH; k++) bodies.add(b);
+        long first = System.nanoTime() - t0;
+        for (int k = 0; k < SPAWN_BATCH; k++) bodies.remove(n);
+        if (first > MAX_TICK_NANOS) return null;
+
+        long adds = 0;
+        long elapsed = 0;
+        long a0 = Allocation.allocatedBytes();
+        long wall = System.nanoTime();
+        while (System.nanoTime() - wall < TARGET_NANOS) {
+            long start = System.nanoTime();
+            for (int k = 0; k < SPAWN_BATCH; k++) bodies.add(b);
+            elapsed += System.nanoTime() - start;
+            adds += SPAWN_BATCH;
+            bodies.removeIf(x -> x == b);
+        }
+        long a1 = Allocation.allocatedBytes();
+
+        double bytes = a0 < 0 ? Double.NaN : (double) (a1 - a0) / adds;
+        return new Result(type, n, adds, (double) elapsed / adds, bytes);
+    }
+
+    /**
+     * Measures the parallel tick for one (list, n) pair with the given worker count,
+     * using the same phases as Simulation's parallel tick.
+     */
+    static Result measureThreads(String type, int n, int threads) {
+        ParallelTick par = new ParallelTick(threads);
+        Runnable tick;
+        if (type.equals("soa")) {
+            BodyStore store = populateStore(n);
+            tick = () -> {
+                int marked = store.size();
+                boolean[] m = par.stepAndMark(store, n, 1);
+                store.add(BodyStore.COMET, 0, 0, 1, 0, 0, BodyStore.BLACK);
+                store.cull(m, marked, n, 1);
+            };
+        } else {
+            List<Simulation.Body> bodies = populate(type, n);
+            tick = () -> {
+                int marked = bodies.size();
+                boolean[] m = par.stepAndMark(bodies, n, 1);
+                bodies.add(new Simulation.Body(Simulation.Kind.COMET, 0, 0, 1, 0, 0, Color.BLACK));
+                int[] cursor = { 0 };
+                bodies.removeIf(b -> {
+                    int i = cursor[0]++;
+                    return i < marked ? m[i] : b.offScreen(n, 1);
+                });
+            };
+        }
+        for (int k = 0; k < 20; k++) tick.run();
+
+        long ticks = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            tick.run();
+            ticks++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        par.shutdown();
+        return new Result(type, n, ticks, (double) elapsed / ticks, Double.NaN);
+    }
+
+    /**
+     * Prints ns/tick and speedup over one thread for 1, 2, 4, ... threads up to the core count.
+     */
+    static void scaling(int n, String[] lists) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-10s %10s %8s %14s %10s   (%d cores)%n", "list", "n", "threads", "ns/tick", "speedup", cores);
+        for (String type : lists) {
+            type = type.trim();
+            if (!type.equals("soa") && !type.equals("arraylist") && !type.equals("double")) continue;
+            double base = 0;
+            for (int t = 1; t <= Math.max(2, cores); t *= 2) {
+                Result r = measureThreads(type, n, t);
+                if (t == 1) base = r.nsPerTick;
+                System.out.printf("%-10s %10d %8d %14.1f %10.2f%n", type, n, t, r.nsPerTick, base / r.nsPerTick);
+            }
+        }
+    }
+
+    /** Step + off-screen variants compared in kernel mode. */
+    static final String[] KERNELS = { "body", "scalar", "block" };
+
+    /**
+     * Measures one step + off-screen pass over n bodies with the given variant. The area is
+     * wide enough that nothing goes off-screen, as in a steady-state tick.
+     */
+    static Result measureKernel(String variant, int n) {
+        int w = Integer.MAX_VALUE / 2;
+        boolean[] mask = new boolean[n + 1];
+        Runnable pass;
+        switch (variant) {
+            case "body": {
+                Simulation.Body[] bodies = new Simulation.Body[n];
+                int i = 0;
+                for (Simulation.Body b : populate("arraylist", n)) bodies[i++] = b;
+                pass = () -> {
+                    for (int k = 0; k < n; k++) {
+                        Simulation.Body b = bodies[k];
+                        b.step();
+                        mask[k] = b.kind != Simulation.Kind.STAR && b.offScreen(w, w);
+                    }
+                };
+                break;
+            }
+            case "scalar": {
+                BodyStore store = populateStore(n);
+                pass = () -> {
+                    store.step();
+                    for (int k = 0; k < n; k++) mask[k] = store.kind[k] != BodyStore.STAR && store.offScreen(k, w, w);
+                };
+                break;
+            }
+            case "block": {
+                BodyStore store = populateStore(n);
+                StepKernel kernel = new StepKernel();
+                pass = () -> kernel.stepAndMark(store, w, w);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Invalid kernel: " + variant + " (expected body|scalar|block)");
+        }
+        for (int k = 0; k < 20; k++) pass.run();
+
+        long passes = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            pass.run();
+            passes++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        return new Result(variant, n, passes, (double) elapsed / passes / n, Double.NaN);
+    }
+
+    /** Keeps measured lookups from being optimized away. */
+    static volatile long sink;
+
+    /**
+     * Reports ns per getHandle over a full map of n, and per removeHandle draining it in
+     * random order; the map is refilled, untimed, between drains.
+     */
+    static void measureHandles(int n) {
+        MySlotMap<Integer> map = new MySlotMap<>(n);
+        long[] handles = new long[n];
+        Random rnd = new Random(1);
+        fillShuffled(map, handles, rnd);
+        long sum = 0, lookups = 0;
+        long start = System.nanoTime();
+        do {
+            for (long h : handles) sum += map.getHandle(h);
+            lookups += n;
+        } while (System.nanoTime() - start < TARGET_NANOS);
+        double getNs = (double) (System.nanoTime() - start) / lookups;
+        sink = sum;
+
+        long removeNanos = 0, removes = 0;
+        do {
+            long t0 = System.nanoTime();
+            for (long h : handles) map.removeHandle(h);
+            removeNanos += System.nanoTime() - t0;
+            removes += n;
+            fillShuffled(map, handles, rnd);
+        } while (removeNanos < TARGET_NANOS);
+        System.out.printf("%-10s %10d %14.1f %14.1f%n", "slotmap", n, getNs, (double) removeNanos / removes);
+    }
+
+    /** Inserts 0..n-1 into an empty map and leaves their handles in random order. */
+    private static void fillShuffled(MySlotMap<Integer> map, long[] handles, Random rnd) {
+        for (int i = 0; i < handles.length; i++) handles[i] = map.insert(i);
+        for (int i = handles.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            long t = handles[i];
+            handles[i] = handles[j];
+            handles[j] = t;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].trim().equals("handles")) {
+            int maxN = args.length > 1 ? Integer.parseInt(args[1].trim()) : SIZES[SIZES.length - 1];
+            System.out.printf("%-10s %10s %14s %14s%n", "list", "n", "ns/getHandle", "ns/removeHandle");
+            for (int n : SIZES) {
+                if (n > maxN) break;
+                measureHandles(n);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].trim().equals("kernel")) {
+            int maxN = args.length > 1 ? Integer.parseInt(args[1].trim()) : SIZES[SIZES.length - 1];
+            System.out.printf("%-10s %10s %10s %14s%n", "kernel", "n", "passes", "ns/body");
+            for (String variant : args.length > 2 ? args[2].split(",") : KERNELS) {
+                for (int n : SIZES) {
+                    if (n > maxN) break;
+                    Result r = measureKernel(variant.trim(), n);
+                    System.out.printf("%-10s %10d %10d %14.2f%n", r.list, r.n, r.ticks, r.nsPerTick);
+                }
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].trim().equals("threads")) {
+            int n = args.length > 1 ? Integer.parseInt(args[1].trim()) : SIZES[SIZES.length - 1];
+            scaling(n, args.length > 2 ? args[2].split(",") : LISTS);
+            return;
+        }
+        boolean spawn = args.length > 0 && args[0].trim().equals("spawn");
+        if (spawn) args = java.util.Arrays.copyOfRange(args, 1, args.length);
+        int maxN = args.length > 0 ? Integer.parseInt(args[0].trim()) : SIZES[SIZES.length - 1];
+        String[] lists = args.length > 1 ? args[1].split(",") : LISTS;
+
+        if (spawn) System.out.printf("%-10s %10s %10s %14s %14s%n", "list", "n", "adds", "ns/add", "bytes/add");
+        else System.out.printf("%-10s %10s %10s %14s %14s%n", "list", "n", "ticks", "ns/tick", "bytes/tick");
+        for (String type : lists) {
+            for (int n : SIZES) {
+                if (n > maxN) break;
+                if (spawn && type.trim().equals("soa")) break;
+                Result r = spawn ? measureSpawn(type.trim(), n) : measure(type.trim(), n);
+                if (r == null) {
+                    System.out.printf("%-10s %10d %10s %14s %14s%n", type, n, "-", "skipped", "-");
+                    break;
+                }
+                System.out.printf("%-10s %10d %10d %14.1f %14.1f%n", r.list, r.n, r.ticks, r.nsPerTick, r.bytesPerTick);
+            }
+        }
+    }
+}
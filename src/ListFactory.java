@@ -7,17 +7,27 @@ public final class ListFactory {
      * @param value
      */
     public static <T> List<T> fromProperty(String value) {
+        return fromProperty(value, 10);
+    }
+
+    /**
+     * Same as {@link #fromProperty(String)}, with room for capacity elements up front in the
+     * array-backed types; the linked types ignore it.
+     */
+    public static <T> List<T> fromProperty(String value, int capacity) {
         if (value == null) {
-            throw new IllegalArgumentException("Missing 'list' property (expected arraylist|single|double|dummyhead)");
+            throw new IllegalArgumentException("Missing 'list' property (expected arraylist|single|double|dummyhead|unrolled|slotmap)");
         }
         switch (value.trim().toLowerCase()) {
-            case "arraylist":  return new MyArrayList<>();       
+            case "arraylist":  return new MyArrayList<>(capacity);
             case "single":     return new MySinglyLinkedList<>();   
             case "double":     return new MyDoublyLinkedList<>();     
             case "dummyhead":  return new MyDummyHeadLinkedList<>();  
+            case "unrolled":   return new MyUnrolledLinkedList<>();
+            case "slotmap":    return new MySlotMap<>(capacity);
             default:
                 throw new IllegalArgumentException(
-                    "Invalid 'list' value: " + value + " (expected arraylist|single|double|dummyhead)");
+                    "Invalid 'list' value: " + value + " (expected arraylist|single|double|dummyhead|unrolled|slotmap)");
         }
     }
 }
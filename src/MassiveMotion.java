@@ -1,241 +1,153 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.io.*;
-import java.util.Objects;
-import java.util.Properties;
-import java.util.Random;
-import java.net.URL;
-
-
-public final class MassiveMotion extends JPanel implements ActionListener {
-
-    // ----- Types -----
-    /** Simulation body categories. */
-    private enum Kind { STAR, COMET }
-
-    /**
-     * A single drawable/movable body in the simulation.
-     */
-    private static final class Body {
-        Kind kind;
-        int cx, cy;     // center position
-        int vx, vy;     // pixels per tick
-        int radius;     // draw radius
-        Color color;
-
-        /**
-         * Constructs a Body
-         */
-        Body(Kind kind, int cx, int cy, int vx, int vy, int radius, Color color) {
-            this.kind = kind;
-            this.cx = cx; this.cy = cy;
-            this.vx = vx; this.vy = vy;
-            this.radius = radius;
-            this.color = color;
-        }
-
-        /**
-         * Advances the body's position by one tick using its velocity.
-         */
-        void step() { cx += vx; cy += vy; }
-
-        /**
-         * Renders the body as a filled circle centered at (cx, cy).
-         */
-        void paint(Graphics g) {
-            g.setColor(color);
-            g.fillOval(cx - radius, cy - radius, radius * 2, radius * 2);
-        }
-
-        /**
-         * Determines whether this body lies entirely outside the viewport.
-         */
-        boolean offScreen(int w, int h) {
-            return cx + radius < 0 || cx - radius > w || cy + radius < 0 || cy - radius > h;
-        }
-    }
-
-    // ----- Config (defaults exactly per handout) -----
-    private int timerDelay;
-    private String listType;
-    private int winW, winH;
-
-    private int starX, starY; // treated as center
-    private int starSize;
-    private int starVx, starVy;
-
-    private double genX; // probability to spawn along top/bottom each tick
-    private double genY; // probability to spawn along left/right each tick
-    private int bodySize;
-    private int bodyVelMax;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Swing viewer for a {@link Simulation}. Ticks run on their own thread on a fixed timestep of
+ * timer_delay ms: each wake-up runs however many ticks are due by the wall clock, so late or
+ * early wake-ups do not change the simulated rate. After ticking, the simulation is copied
+ * into a {@link Frame} and handed to the painter
+ * through a lock-free {@link FrameExchange}, so stepping and painting run concurrently and
+ * never touch the same data. The simulation itself has no Swing dependency and can also be
+ * run headless.
+ */
+public final class MassiveMotion extends JPanel {
 
     // ----- State -----
-    private final Random rng = new Random();
-    private final List<Body> bodies;
-    private final Timer timer;
+    private final Simulation sim;
+    private final int winW, winH;
+    private final Renderer renderer;
+    private final FrameExchange frames = new FrameExchange();
+    private final ScheduledExecutorService ticker;
+    /** Ticks allowed per wake-up before the clock is slipped instead of catching up. */
+    private static final int MAX_CATCH_UP = 5;
+    private ScheduledFuture<?> schedule;
+    /** Current timestep; changes when a config reload changes timer_delay. */
+    private long stepNanos;
+    /** Wall-clock origin of the fixed timestep; moved forward when we fall too far behind. */
+    private long originNanos;
+    private boolean closed;
 
     // ----- Init -----
     /**
-     * Reads an integer property, falling back to a default if missing or invalid.
-     */
-    private static int getInt(Properties p, String k, int dflt) {
-        String v = p.getProperty(k);
-        if (v == null) return dflt;
-        try { return (int) Math.round(Double.parseDouble(v.trim())); }
-        catch (Exception e) { return dflt; }
-    }
-
-    /**
-     * Reads a double property, falling back to a default if missing or invalid.
-     */
-    private static double getDouble(Properties p, String k, double dflt) {
-        String v = p.getProperty(k);
-        if (v == null) return dflt;
-        try { return Double.parseDouble(v.trim()); }
-        catch (Exception e) { return dflt; }
-    }
-
-    /**
-     * Loads all configuration values from a classpath resource path.
-     * Uses documented defaults when properties are missing or malformed
-    */
-    private void loadConfig(String propPath) {
-       Properties p = new Properties();
-        try {
-            // the configuration file name
-            ClassLoader classLoader = MassiveMotion.class.getClassLoader();
-
-            // Make sure that the configuration file exists
-            URL res = Objects.requireNonNull(classLoader.getResource(propPath),
-                "Can't find configuration file app.config");
-
-            java.io.InputStream is = new java.io.FileInputStream(res.getFile());
-
-            // load the properties file
-            p.load(is);
-
-            timerDelay = getInt(p, "timer_delay", 75);
-
-            listType = p.getProperty("list", "arraylist"); // parsed; factory may use it later
-
-            winW = getInt(p, "window_size_x", 1024);
-            winH = getInt(p, "window_size_y", 768);
-
-            starX = getInt(p, "star_position_x", 512);
-            starY = getInt(p, "star_position_y", 384);
-            starSize = getInt(p, "star_size", 30);
-            starVx = getInt(p, "star_velocity_x", 0);
-            starVy = getInt(p, "star_velocity_y", 0);
-
-            genX = getDouble(p, "gen_x", 0.06);
-            genY = getDouble(p, "gen_y", 0.06);
-
-            bodySize = getInt(p, "body_size", 10);
-            bodyVelMax = Math.max(1, getInt(p, "body_velocity", 3));
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Constructs the panel, loads config, seeds the star, and starts the timer.
+     * Constructs the panel, loads config, seeds the star, and starts the tick thread.
      *
      */
     public MassiveMotion(String propPath) {
-        loadConfig(propPath);
-        setPreferredSize(new Dimension(winW, winH));
-
-        bodies = ListFactory.fromProperty(listType);
-
-        bodies.add(new Body(Kind.STAR, starX, starY, starVx, starVy, starSize, Color.RED));
-
-        timer = new Timer(timerDelay, this);
-        timer.start();
+        this(new Simulation(SimConfig.load(propPath)));
     }
 
-    // ----- Spawning -----
     /**
-     * Returns a non-zero integer velocity uniformly sampled from  maxAbs, maxAbs.
-     *
+     * Constructs a viewer over an existing simulation and starts the tick thread.
      */
-    private int randVelNZ(int maxAbs) {
-        int v;
-        do { v = rng.nextInt(maxAbs * 2 + 1) - maxAbs; } while (v == 0);
-        return v;
+    public MassiveMotion(Simulation sim) {
+        this.sim = sim;
+        this.winW = sim.config().winW;
+        this.winH = sim.config().winH;
+        setPreferredSize(new Dimension(winW, winH));
+        renderer = new Renderer(winW, winH);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "simulation");
+            t.setDaemon(true);
+            return t;
+        });
+        reschedule(Math.max(1, sim.config().timerDelay));
+        System.out.println("seed=" + sim.seed());
     }
 
     /**
-     * With probability genX, spawns a COMET at the top or bottom edge with velocity nudged inward.
+     * Paints the most recently published frame: renders it offscreen, then blits the image.
      *
      */
-    private void maybeSpawnTopBottom() {
-        if (rng.nextDouble() >= genX) return;
-        boolean fromTop = rng.nextBoolean();
-        int cx = rng.nextInt(winW);
-        int cy = fromTop ? -bodySize : winH + bodySize;
-        int vx = randVelNZ(bodyVelMax);
-        int vy = randVelNZ(bodyVelMax);
-        if (fromTop && vy <= 0) vy = Math.abs(vy);
-        if (!fromTop && vy >= 0) vy = -Math.abs(vy);
-        bodies.add(new Body(Kind.COMET, cx, cy, vx, vy, bodySize, Color.BLACK));
+    @Override protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        TickMetrics metrics = sim.metrics();
+        long start = metrics != null ? System.nanoTime() : 0;
+        renderer.render(frames.front(), g);
+        if (metrics != null) metrics.recordRepaint(System.nanoTime() - start);
     }
 
     /**
-     * With probability genY, spawns a COMET at the left or right edge with velocity nudged inward.
+     * (Re)starts the fixed timestep at the given period. The clock origin is moved so the
+     * ticks already run count as on time at the new rate, rather than owed or early.
      */
-    private void maybeSpawnLeftRight() {
-        if (rng.nextDouble() >= genY) return;
-        boolean fromLeft = rng.nextBoolean();
-        int cx = fromLeft ? -bodySize : winW + bodySize;
-        int cy = rng.nextInt(winH);
-        int vx = randVelNZ(bodyVelMax);
-        int vy = randVelNZ(bodyVelMax);
-        if (fromLeft && vx <= 0) vx = Math.abs(vx);
-        if (!fromLeft && vx >= 0) vx = -Math.abs(vx);
-        bodies.add(new Body(Kind.COMET, cx, cy, vx, vy, bodySize, Color.BLACK));
+    private void reschedule(int delayMs) {
+        stepNanos = TimeUnit.MILLISECONDS.toNanos(delayMs);
+        originNanos = System.nanoTime() - sim.tickCount() * stepNanos;
+        if (schedule != null) schedule.cancel(false);
+        schedule = ticker.scheduleAtFixedRate(this::tick, delayMs, delayMs, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Paints the current frame: clears to white, then draws all bodies.
-     *
+     * Wake-up on the simulation thread: run the ticks that are due, publish a frame, then
+     * request repaint.
      */
-    @Override protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        g.setColor(Color.WHITE);
-        g.fillRect(0, 0, winW, winH);
-        for (int i = 0; i < bodies.size(); i++) bodies.get(i).paint(g);
+    private void tick() {
+        try {
+            long due = (System.nanoTime() - originNanos) / stepNanos;
+            long behind = due - sim.tickCount();
+            if (behind <= 0) return;
+            if (behind > MAX_CATCH_UP) {
+                originNanos += (behind - MAX_CATCH_UP) * stepNanos; // drop time rather than spiral
+                behind = MAX_CATCH_UP;
+            }
+            for (long k = 0; k < behind; k++) sim.tick();
+            sim.snapshot(frames.back());
+            frames.publish();
+            repaint();
+            int delay = Math.max(1, sim.config().timerDelay);
+            if (TimeUnit.MILLISECONDS.toNanos(delay) != stepNanos) reschedule(delay);
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // an uncaught exception would silently cancel the schedule
+        }
     }
 
     /**
-     * One timer tick: step all bodies, maybe spawn new ones, remove off-screen comets, request repaint.
+     * Stops the tick thread, waiting for a tick in progress to finish, then closes the
+     * simulation so its event log, snapshots and metrics are flushed. Safe to call twice.
      */
-    @Override public void actionPerformed(ActionEvent e) {
-        for (int i = 0; i < bodies.size(); i++) bodies.get(i).step();
-
-        maybeSpawnTopBottom();  
-        maybeSpawnLeftRight(); 
-
-        for (int i = bodies.size() - 1; i >= 0; i--) {
-            Body b = bodies.get(i);
-            if (b.kind == Kind.STAR) continue;
-            if (b.offScreen(winW, winH)) bodies.remove(i);
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        ticker.shutdown();
+        try {
+            ticker.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-
-        repaint();
+        sim.close();
     }
 
     /**
-     * Creates the window and starts the simulation.
+     * Creates the window and starts the simulation. Closing the window, or stopping the JVM
+     * any other way, closes the simulation first.
+     * With {@code --headless <ticks>} after the config path, runs without a window instead
+     * and reports throughput.
      */
     public static void main(String[] args) {
         String propPath = args[0];
 
+        if (args.length >= 3 && args[1].equals("--headless")) {
+            HeadlessRunner.main(new String[] { propPath, args[2] });
+            return;
+        }
+
         MassiveMotion panel = new MassiveMotion(propPath);
         JFrame jf = new JFrame("Massive Motion");
         jf.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        jf.addWindowListener(new WindowAdapter() {
+            @Override public void windowClosing(WindowEvent e) {
+                panel.close(); // runs before EXIT_ON_CLOSE exits
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(panel::close, "close-simulation"));
         jf.setSize(panel.winW, panel.winH); // spec: size from configuration
         jf.add(panel);
         jf.setVisible(true);
@@ -1,34 +1,92 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
 public class MyArrayList<T> implements List<T> {
     private Object[] array;
     /** Logical number of elements (next insertion index). */
     private int size;
+    /** Elements moved by shifts and growth copies; see {@link #opSteps}. */
+    private long opSteps;
 
     /**
      * Constructs a list with an initial capacity of 10.
      */
     public MyArrayList() {
-        this.array = new Object[10];
+        this(10);
+    }
+
+    /**
+     * Constructs a list with room for the given number of elements before it has to grow.
+     */
+    public MyArrayList(int initialCapacity) {
+        this.array = new Object[Math.max(1, initialCapacity)];
         this.size = 0;
     }
-    
+
+    /**
+     * Doubles the backing array when it is full, copying with a single bulk copy.
+     */
+    private void growIfFull() {
+        if (size >= array.length) {
+            opSteps += size;
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+    }
+
+    /**
+     * Grows the backing array, in one copy, so it holds at least minCapacity elements.
+     * Grows to at least double the current size so repeated calls stay amortized O(1).
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= array.length) return;
+        opSteps += size;
+        array = Arrays.copyOf(array, Math.max(minCapacity, array.length * 2));
+    }
+
     /**
      * Appends the element to the end of the list, growing the backing array if needed.
      */
     @Override
     public boolean add(T addMe) {
-        if (size >= array.length) {
-            Object[] newArray = new Object[array.length * 2];
-            for (int i = 0; i < array.length; i++) {
-                newArray[i] = array[i];
-            }
-            array = newArray;
-        }
+        growIfFull();
 
         array[size] = addMe;
         size++;
         return true;
     }
 
+    /**
+     * Appends all of items after growing at most once. Another MyArrayList is copied with a
+     * single bulk copy; other lists are walked once.
+     */
+    @Override
+    public boolean addAll(List<? extends T> items) {
+        int n = items.size();
+        if (n == 0) return false;
+        ensureCapacity(size + n);
+        if (items instanceof MyArrayList) {
+            System.arraycopy(((MyArrayList<?>) items).array, 0, array, size, n);
+        } else {
+            int i = size;
+            for (T e : items) {
+                if (i == size + n) break;
+                array[i++] = e;
+            }
+        }
+        size += n;
+        return true;
+    }
+
+    /**
+     * Removes every element, keeping the capacity.
+     */
+    void clear() {
+        Arrays.fill(array, 0, size, null); // avoid loitering
+        size = 0;
+    }
+
     /**
      * Removes and returns the element at index i, shifting subsequent elements left.
      */
@@ -39,9 +97,8 @@ public class MyArrayList<T> implements List<T> {
             throw new IndexOutOfBoundsException("remove: index " + i + " out of bounds (size " + size + ")");
         }
         T old = (T) array[i];
-        for (int j = i; j < size - 1; j++) {
-            array[j] = array[j + 1];
-        }
+        System.arraycopy(array, i + 1, array, i, size - 1 - i);
+        opSteps += size - 1 - i;
         array[size - 1] = null; // avoid loitering
         size--;
         return old;
@@ -55,16 +112,9 @@ public class MyArrayList<T> implements List<T> {
         if (i < 0 || i > size) {
             throw new IndexOutOfBoundsException("add: index " + i + " out of bounds for insert (size " + size + ")");
         }
-        if (size >= array.length) {
-            Object[] newArray = new Object[array.length * 2];
-            for (int k = 0; k < array.length; k++) {
-                newArray[k] = array[k];
-            }
-            array = newArray;
-        }
-        for (int j = size; j > i; j--) {
-            array[j] = array[j - 1];
-        }
+        growIfFull();
+        System.arraycopy(array, i, array, i + 1, size - i);
+        opSteps += size - i;
         array[i] = element;
         size++;
     }
@@ -89,4 +139,67 @@ public class MyArrayList<T> implements List<T> {
         return size;
     }
 
+    /**
+     * Removes every element matching the filter in one pass.
+     * Survivors are compacted toward the front in order, then the freed tail slots are nulled,
+     * so culling k elements costs O(n) instead of the O(k*n) of k separate remove(i) calls.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            T e = (T) array[r];
+            if (!filter.test(e)) {
+                if (w != r) array[w] = e;
+                w++;
+            }
+        }
+        if (w == size) return false;
+        Arrays.fill(array, w, size, null); // avoid loitering
+        size = w;
+        return true;
+    }
+
+    @Override
+    public long opSteps() {
+        return opSteps;
+    }
+
+    /**
+     * Returns a cursor over the elements in index order.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    /** Index-based cursor; remove() shifts the tail left like remove(int). */
+    private final class Itr implements Iterator<T> {
+        /** Index of the next element to return. */
+        private int cursor;
+        /** Index of the last element returned, or -1 if none / already removed. */
+        private int lastRet = -1;
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (cursor >= size) throw new NoSuchElementException();
+            lastRet = cursor++;
+            return (T) array[lastRet];
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) throw new IllegalStateException();
+            MyArrayList.this.remove(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+        }
+    }
 }
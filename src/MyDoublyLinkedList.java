@@ -1,3 +1,7 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
 public class MyDoublyLinkedList<T> implements List<T>{
     /** First node (null if empty). */
     private DNode<T> head;
@@ -5,6 +9,10 @@ public class MyDoublyLinkedList<T> implements List<T>{
     private DNode<T> tail;
     /** Number of elements. */
     private int size;
+    /** Removed nodes kept for reuse by later adds, chained through next. */
+    private DNode<T> free;
+    /** Nodes walked past by indexed operations; see {@link #opSteps}. */
+    private long opSteps;
 
     /** Create empty list. */
     public MyDoublyLinkedList() {
@@ -13,13 +21,35 @@ public class MyDoublyLinkedList<T> implements List<T>{
         this.size = 0;
     }
 
+    /**
+     * Returns a recycled node holding data, or a new one if none are free.
+     */
+    private DNode<T> obtain(T data) {
+        DNode<T> n = free;
+        if (n == null) return new DNode<>(data);
+        free = n.getNext();
+        n.setNext(null);
+        n.setData(data);
+        return n;
+    }
+
+    /**
+     * Clears a node that has been unlinked and pushes it onto the free list.
+     */
+    private void recycle(DNode<T> n) {
+        n.setData(null); // avoid loitering
+        n.setLast(null);
+        n.setNext(free);
+        free = n;
+    }
+
     /**
      * Append to tail.
      * Links new node after current tail; initializes head/tail when empty.
      */
     @Override
     public boolean add(T data) {
-        DNode<T> n = new DNode<>(data);
+        DNode<T> n = obtain(data);
         if (head == null) {
             head = n;
             tail = n;
@@ -32,6 +62,37 @@ public class MyDoublyLinkedList<T> implements List<T>{
         return true;
     }
 
+    /**
+     * Appends all of items by building their node chain off to the side and splicing it
+     * onto the tail with a single pair of links.
+     */
+    @Override
+    public boolean addAll(List<? extends T> items) {
+        DNode<T> first = null, last = null;
+        int n = 0;
+        for (T e : items) {
+            DNode<T> node = obtain(e);
+            if (first == null) {
+                first = node;
+            } else {
+                node.setLast(last);
+                last.setNext(node);
+            }
+            last = node;
+            n++;
+        }
+        if (n == 0) return false;
+        if (head == null) {
+            head = first;
+        } else {
+            first.setLast(tail);
+            tail.setNext(first);
+        }
+        tail = last;
+        size += n;
+        return true;
+    }
+
     /**
      * Insert at index.
      * Handles four cases: empty, at head, at tail, middle (link prev ↔ node ↔ next).
@@ -39,7 +100,7 @@ public class MyDoublyLinkedList<T> implements List<T>{
     @Override
     public void add(int index, T data) {
         if (index < 0 || index > size) throw new IndexOutOfBoundsException();
-        DNode<T> node = new DNode<>(data);
+        DNode<T> node = obtain(data);
         if (size == 0) {                    // empty list
             head = tail = node;
         } else if (index == 0) {           // insert at head
@@ -92,7 +153,9 @@ public class MyDoublyLinkedList<T> implements List<T>{
             target.setLast(null);
         }
         size--;
-        return target.getData();
+        T data = target.getData();
+        recycle(target);
+        return data;
     }
 
     /**
@@ -111,19 +174,94 @@ public class MyDoublyLinkedList<T> implements List<T>{
         return size;
     }
 
+    @Override
+    public long opSteps() {
+        return opSteps;
+    }
+
     /**
      * Internal: node at index.
      * Uses bidirectional traversal (from head if first half; from tail otherwise).
      */
     private DNode<T> nodeAt(int index) {
         if (index <= (size >> 1)) {
+            opSteps += index;
             DNode<T> p = head;
             for (int i = 0; i < index; i++) p = p.getNext();
             return p;
         } else {
+            opSteps += size - 1 - index;
             DNode<T> p = tail;
             for (int i = size - 1; i > index; i--) p = p.getLast();
             return p;
         }
     }
+
+    /**
+     * Internal: unlink a node in O(1), fixing head/tail, and recycle it.
+     */
+    private void unlink(DNode<T> target) {
+        DNode<T> prev = target.getLast();
+        DNode<T> next = target.getNext();
+        if (prev == null) head = next;
+        else prev.setNext(next);
+        if (next == null) tail = prev;
+        else next.setLast(prev);
+        recycle(target);
+        size--;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass from head to tail.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        boolean removed = false;
+        DNode<T> p = head;
+        while (p != null) {
+            DNode<T> next = p.getNext();
+            if (filter.test(p.getData())) {
+                unlink(p);
+                removed = true;
+            }
+            p = next;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a cursor from head to tail.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    /** Forward cursor; remove() unlinks the last returned node directly. */
+    private final class Itr implements Iterator<T> {
+        /** Node last returned by next(), or null if none / already removed. */
+        private DNode<T> lastRet;
+        /** Node to return on the next call to next(). */
+        private DNode<T> nextNode = head;
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public T next() {
+            if (nextNode == null) throw new NoSuchElementException();
+            lastRet = nextNode;
+            nextNode = nextNode.getNext();
+            return lastRet.getData();
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet == null) throw new IllegalStateException();
+            unlink(lastRet);
+            lastRet = null;
+        }
+    }
 }
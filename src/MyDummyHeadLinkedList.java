@@ -1,28 +1,82 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
 public class MyDummyHeadLinkedList<T> implements List<T> {
     /** Sentinel node before the first real element (never holds data). */
     private final SNode<T> dummy;
+    /** Last node; the sentinel itself when empty. Kept so append is O(1). */
+    private SNode<T> tail;
     /** Number of elements. */
     private int size;
+    /** Removed nodes kept for reuse by later adds, chained through next. */
+    private SNode<T> free;
+    /** Nodes walked past by indexed operations; see {@link #opSteps}. */
+    private long opSteps;
 
     /** Create empty list with a sentinel head. */
     public MyDummyHeadLinkedList() {
         this.dummy = new SNode<>(null); // sentinel head
+        this.tail = dummy;
         this.size = 0;
     }
 
+    /**
+     * Returns a recycled node holding data, or a new one if none are free.
+     */
+    private SNode<T> obtain(T data) {
+        SNode<T> n = free;
+        if (n == null) return new SNode<>(data);
+        free = n.getNext();
+        n.setNext(null);
+        n.setData(data);
+        return n;
+    }
+
+    /**
+     * Clears a node that has been unlinked and pushes it onto the free list.
+     */
+    private void recycle(SNode<T> n) {
+        n.setData(null); // avoid loitering
+        n.setNext(free);
+        free = n;
+    }
+
     /**
      * Append to the end.
-     * Walks from dummy to tail, then links new node.
+     * Links new node after the tail reference; no traversal.
      */
     @Override
     public boolean add(T data) {
-        SNode<T> p = dummy;
-        while (p.getNext() != null) p = p.getNext();
-        p.setNext(new SNode<>(data));
+        SNode<T> node = obtain(data);
+        tail.setNext(node);
+        tail = node;
         size++;
         return true;
     }
 
+    /**
+     * Appends all of items by building their node chain off to the side and splicing it
+     * onto the tail with a single link.
+     */
+    @Override
+    public boolean addAll(List<? extends T> items) {
+        SNode<T> first = null, last = null;
+        int n = 0;
+        for (T e : items) {
+            SNode<T> node = obtain(e);
+            if (first == null) first = node;
+            else last.setNext(node);
+            last = node;
+            n++;
+        }
+        if (n == 0) return false;
+        tail.setNext(first);
+        tail = last;
+        size += n;
+        return true;
+    }
+
     /**
      * Insert at index.
      */
@@ -31,9 +85,11 @@ public class MyDummyHeadLinkedList<T> implements List<T> {
         if (index < 0 || index > size) throw new IndexOutOfBoundsException();
         SNode<T> prev = dummy;
         for (int i = 0; i < index; i++) prev = prev.getNext();
-        SNode<T> node = new SNode<>(data);
+        opSteps += index;
+        SNode<T> node = obtain(data);
         node.setNext(prev.getNext());
         prev.setNext(node);
+        if (prev == tail) tail = node;
         size++;
     }
 
@@ -45,10 +101,14 @@ public class MyDummyHeadLinkedList<T> implements List<T> {
         if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
         SNode<T> prev = dummy;
         for (int i = 0; i < index; i++) prev = prev.getNext();
+        opSteps += index;
         SNode<T> target = prev.getNext();
         prev.setNext(target.getNext());
+        if (target == tail) tail = prev;
         size--;
-        return target.getData();
+        T data = target.getData();
+        recycle(target);
+        return data;
     }
 
     /**
@@ -60,6 +120,7 @@ public class MyDummyHeadLinkedList<T> implements List<T> {
         if (index < 0 || index >= size) throw new IndexOutOfBoundsException();  
         SNode<T> p = dummy.getNext();
         for (int i = 0; i < index; i++) p = p.getNext();
+        opSteps += index;
         return p.getData();
     }
 
@@ -67,4 +128,76 @@ public class MyDummyHeadLinkedList<T> implements List<T> {
     public int size() {
         return size;
     }
+
+    @Override
+    public long opSteps() {
+        return opSteps;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass.
+     * The sentinel means the predecessor is never null, so there is no head special case.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        boolean removed = false;
+        SNode<T> prev = dummy;
+        SNode<T> p = dummy.getNext();
+        while (p != null) {
+            SNode<T> next = p.getNext();
+            if (filter.test(p.getData())) {
+                prev.setNext(next);
+                recycle(p);
+                size--;
+                removed = true;
+            } else {
+                prev = p;
+            }
+            p = next;
+        }
+        tail = prev;
+        return removed;
+    }
+
+    /**
+     * Returns a cursor from the first real node to the end.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    /** Forward cursor that remembers the predecessor of the last returned node. */
+    private final class Itr implements Iterator<T> {
+        /** Node before lastRet; starts at the sentinel. */
+        private SNode<T> prev = dummy;
+        /** Node last returned by next(), or null if none / already removed. */
+        private SNode<T> lastRet;
+        /** Node to return on the next call to next(). */
+        private SNode<T> nextNode = dummy.getNext();
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public T next() {
+            if (nextNode == null) throw new NoSuchElementException();
+            if (lastRet != null) prev = lastRet;
+            lastRet = nextNode;
+            nextNode = nextNode.getNext();
+            return lastRet.getData();
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet == null) throw new IllegalStateException();
+            prev.setNext(nextNode);
+            if (lastRet == tail) tail = prev;
+            recycle(lastRet);
+            lastRet = null;
+            size--;
+        }
+    }
 }
@@ -1,35 +1,87 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
 public class MySinglyLinkedList<T> implements List<T> {
     /** First node in the list, or null when empty. */
     private SNode<T> head;
+    /** Last node in the list, or null when empty. Kept so append is O(1). */
+    private SNode<T> tail;
     /** Logical number of elements currently stored. */
     private int size;
+    /** Removed nodes kept for reuse by later adds, chained through next. */
+    private SNode<T> free;
+    /** Nodes walked past by indexed operations; see {@link #opSteps}. */
+    private long opSteps;
 
     /** Constructs an empty list. */
     public MySinglyLinkedList() {
         this.head = null;
+        this.tail = null;
         this.size = 0;
     }
 
+    /**
+     * Returns a recycled node holding data, or a new one if none are free.
+     */
+    private SNode<T> obtain(T data) {
+        SNode<T> n = free;
+        if (n == null) return new SNode<>(data);
+        free = n.getNext();
+        n.setNext(null);
+        n.setData(data);
+        return n;
+    }
+
+    /**
+     * Clears a node that has been unlinked and pushes it onto the free list.
+     */
+    private void recycle(SNode<T> n) {
+        n.setData(null); // avoid loitering
+        n.setNext(free);
+        free = n;
+    }
+
     /**
      * Appends data at the end of the list.
-     * Traverses from head to the last node to link the new node.
+     * Links the new node after the tail reference, so no traversal is needed.
      */
     @Override
     public boolean add(T data) {    
-        SNode<T> n = new SNode<>(data);
+        SNode<T> n = obtain(data);
         if (this.head == null) {
             this.head = n;
         } else {
-            SNode<T> p = this.head;
-            while (p.getNext() != null) {
-                p = p.getNext();
-            }
-            p.setNext(n);
+            this.tail.setNext(n);
         }
+        this.tail = n;
         size++;
         return true;
     }
 
+    /**
+     * Appends all of items by building their node chain off to the side and splicing it
+     * onto the tail with a single link.
+     */
+    @Override
+    public boolean addAll(List<? extends T> items) {
+        SNode<T> first = null, last = null;
+        int n = 0;
+        for (T e : items) {
+            SNode<T> node = obtain(e);
+            if (first == null) first = node;
+            else last.setNext(node);
+            last = node;
+            n++;
+        }
+        if (n == 0) return false;
+        if (head == null) head = first;
+        else tail.setNext(first);
+        tail = last;
+        size += n;
+        return true;
+    }
+
     /**
      * Inserts data at the given index.
      * Shifts links by relinking predecessor to the new node and the new node to successor.
@@ -37,7 +89,7 @@ public class MySinglyLinkedList<T> implements List<T> {
     @Override
     public void add(int element, T data) {
         if (element < 0 || element > this.size) throw new IndexOutOfBoundsException();
-        SNode<T> node = new SNode<>(data);
+        SNode<T> node = obtain(data);
         if (element == 0) {
             node.setNext(this.head);
             this.head = node;
@@ -46,9 +98,11 @@ public class MySinglyLinkedList<T> implements List<T> {
             for (int i = 0; i < element - 1; i++) {
                 prev = prev.getNext();
             }
+            opSteps += element - 1;
             node.setNext(prev.getNext());
             prev.setNext(node);
         }
+        if (node.getNext() == null) this.tail = node;
         this.size++;
     }
 
@@ -60,19 +114,24 @@ public class MySinglyLinkedList<T> implements List<T> {
     public T remove(int element) {
         if (element < 0 || element >= size) throw new IndexOutOfBoundsException();
         SNode<T> n;
+        SNode<T> p = null;
         if (element == 0) {
             n = head;
             head = head.getNext();
         } else {
-            SNode<T> p = head;
+            p = head;
             for (int i = 0; i < element - 1; i++) {
                 p = p.getNext();
             }
+            opSteps += element - 1;
             n = p.getNext();
             p.setNext(n.getNext());
         }
+        if (n == tail) tail = p;
         size--;
-        return n.getData();
+        T data = n.getData();
+        recycle(n);
+        return data;
     }   
 
     /**
@@ -86,6 +145,7 @@ public class MySinglyLinkedList<T> implements List<T> {
         for (int i = 0; i < element; i++) {
             p = p.getNext();
         }
+        opSteps += element;
         return p.getData();
     }
 
@@ -94,4 +154,78 @@ public class MySinglyLinkedList<T> implements List<T> {
     public int size() {
         return size;
     }
+
+    @Override
+    public long opSteps() {
+        return opSteps;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass.
+     * Keeps a trailing predecessor so each removal is a single relink.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        boolean removed = false;
+        SNode<T> prev = null;
+        SNode<T> p = head;
+        while (p != null) {
+            SNode<T> next = p.getNext();
+            if (filter.test(p.getData())) {
+                if (prev == null) head = next;
+                else prev.setNext(next);
+                recycle(p);
+                size--;
+                removed = true;
+            } else {
+                prev = p;
+            }
+            p = next;
+        }
+        tail = prev;
+        return removed;
+    }
+
+    /**
+     * Returns a cursor from head to tail.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    /** Forward cursor that remembers the predecessor of the last returned node. */
+    private final class Itr implements Iterator<T> {
+        /** Node before lastRet (null when lastRet is the head). */
+        private SNode<T> prev;
+        /** Node last returned by next(), or null if none / already removed. */
+        private SNode<T> lastRet;
+        /** Node to return on the next call to next(). */
+        private SNode<T> nextNode = head;
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public T next() {
+            if (nextNode == null) throw new NoSuchElementException();
+            if (lastRet != null) prev = lastRet;
+            lastRet = nextNode;
+            nextNode = nextNode.getNext();
+            return lastRet.getData();
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet == null) throw new IllegalStateException();
+            if (prev == null) head = nextNode;
+            else prev.setNext(nextNode);
+            if (lastRet == tail) tail = prev;
+            recycle(lastRet);
+            lastRet = null;
+            size--;
+        }
+    }
 }
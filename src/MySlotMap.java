@@ -0,0 +1,317 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Generational slot map: elements live in a dense array, and each one also owns a slot in
+ * a sparse table that maps a stable handle to its current dense index.
+ *
+ * A handle packs the slot's generation (high 32 bits) and slot number (low 32 bits). When an
+ * element is removed its slot's generation is bumped and the slot is reused, so old handles
+ * stop resolving instead of pointing at whichever element took the slot next.
+ *
+ * As a {@link List} it keeps order like {@link MyArrayList}: add(int, T), remove(int) and the
+ * iterator's remove shift the elements after the index, and removeIf compacts in one pass,
+ * so index 0 (the star) stays put. removeHandle is the one O(1) removal: the last element
+ * fills the hole, which is the only operation that reorders.
+ */
+public class MySlotMap<T> implements List<T> {
+    /** Dense elements, indexes 0..size-1. */
+    private Object[] items;
+    /** Slot owned by the element at each dense index. */
+    private int[] slotOf;
+    /** Per slot: dense index of its element, or the next free slot while unused. */
+    private int[] index;
+    /** Per slot: bumped each time the slot is freed. */
+    private int[] generation;
+    /** Slots ever handed out; slots at or above this have never been used. */
+    private int slots;
+    /** Head of the free slot chain, or -1. */
+    private int freeSlot = -1;
+    /** Number of elements. */
+    private int size;
+    /** Elements moved by swap-removes and growth; see {@link #opSteps}. */
+    private long opSteps;
+
+    /** Constructs an empty map with room for 10 elements. */
+    public MySlotMap() {
+        this(10);
+    }
+
+    /** Constructs an empty map with room for the given number of elements before it has to grow. */
+    public MySlotMap(int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        items = new Object[cap];
+        slotOf = new int[cap];
+        index = new int[cap];
+        generation = new int[cap];
+    }
+
+    /** Packs a slot and its generation into a handle. */
+    private static long handle(int slot, int gen) {
+        return (long) gen << 32 | (slot & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the dense index a handle refers to, or -1 if its element has been removed.
+     */
+    private int resolve(long h) {
+        int slot = (int) h;
+        if (slot < 0 || slot >= slots || generation[slot] != (int) (h >>> 32)) return -1;
+        return index[slot];
+    }
+
+    /** Grows the dense and slot arrays together when full. */
+    private void growIfFull() {
+        if (size == items.length) ensureCapacity(size + 1);
+    }
+
+    /**
+     * Grows the dense arrays, in one copy each, so they hold at least minCapacity elements.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= items.length) return;
+        int cap = Math.max(minCapacity, items.length * 2);
+        opSteps += size;
+        items = Arrays.copyOf(items, cap);
+        slotOf = Arrays.copyOf(slotOf, cap);
+    }
+
+    /**
+     * Appends the element and returns its handle.
+     */
+    public long insert(T element) {
+        growIfFull();
+        int slot = freeSlot;
+        if (slot >= 0) {
+            freeSlot = index[slot];
+        } else {
+            if (slots == index.length) {
+                index = Arrays.copyOf(index, slots * 2);
+                generation = Arrays.copyOf(generation, slots * 2);
+            }
+            slot = slots++;
+        }
+        index[slot] = size;
+        slotOf[size] = slot;
+        items[size++] = element;
+        return handle(slot, generation[slot]);
+    }
+
+    /**
+     * Appends the element at the end.
+     */
+    @Override
+    public boolean add(T element) {
+        insert(element);
+        return true;
+    }
+
+    /**
+     * Appends all of batch in order after growing at most once; each gets a fresh handle.
+     */
+    @Override
+    public boolean addAll(List<? extends T> batch) {
+        int n = batch.size();
+        if (n == 0) return false;
+        ensureCapacity(size + n);
+        int k = 0;
+        for (T e : batch) {
+            if (k++ == n) break;
+            insert(e);
+        }
+        return true;
+    }
+
+    /**
+     * Inserts the element at index i, shifting the elements from i on one place right.
+     */
+    @Override
+    public void add(int i, T element) {
+        if (i < 0 || i > size) {
+            throw new IndexOutOfBoundsException("add: index " + i + " out of bounds for insert (size " + size + ")");
+        }
+        insert(element);
+        int last = size - 1, slot = slotOf[last];
+        System.arraycopy(items, i, items, i + 1, last - i);
+        System.arraycopy(slotOf, i, slotOf, i + 1, last - i);
+        items[i] = element;
+        slotOf[i] = slot;
+        reindex(i, size);
+        opSteps += last - i;
+    }
+
+    /**
+     * Removes and returns the element at index i, shifting the elements after it one place left.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("remove: index " + i + " out of bounds (size " + size + ")");
+        }
+        T old = (T) items[i];
+        freeSlot(slotOf[i]);
+        int moved = --size - i;
+        System.arraycopy(items, i + 1, items, i, moved);
+        System.arraycopy(slotOf, i + 1, slotOf, i, moved);
+        reindex(i, size);
+        items[size] = null; // avoid loitering
+        opSteps += moved;
+        return old;
+    }
+
+    /** Points the slots of dense positions [from, to) back at their positions after a shift. */
+    private void reindex(int from, int to) {
+        for (int k = from; k < to; k++) index[slotOf[k]] = k;
+    }
+
+    /**
+     * Removes the element at index i in O(1): the last element takes its place.
+     */
+    @SuppressWarnings("unchecked")
+    private T swapRemove(int i) {
+        T old = (T) items[i];
+        freeSlot(slotOf[i]);
+        int last = --size;
+        if (i != last) {
+            items[i] = items[last];
+            slotOf[i] = slotOf[last];
+            index[slotOf[i]] = i;
+            opSteps++;
+        }
+        items[last] = null; // avoid loitering
+        return old;
+    }
+
+    /** Retires a slot: old handles stop resolving and the slot goes on the free chain. */
+    private void freeSlot(int slot) {
+        generation[slot]++;
+        index[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    /**
+     * Removes the element a handle refers to in O(1) and returns it, or null if it is already
+     * gone. The last element moves into its place, so unlike remove(int) this does not keep order.
+     */
+    public T removeHandle(long h) {
+        int i = resolve(h);
+        return i < 0 ? null : swapRemove(i);
+    }
+
+    /**
+     * Returns the element a handle refers to, or null if it has been removed.
+     */
+    @SuppressWarnings("unchecked")
+    public T getHandle(long h) {
+        int i = resolve(h);
+        return i < 0 ? null : (T) items[i];
+    }
+
+    /** Returns true while the handle's element is still in the map. */
+    public boolean contains(long h) {
+        return resolve(h) >= 0;
+    }
+
+    /** Returns the stable handle of the element currently at index i. */
+    public long handleAt(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("handleAt: index " + i + " out of bounds (size " + size + ")");
+        }
+        int slot = slotOf[i];
+        return handle(slot, generation[slot]);
+    }
+
+    /**
+     * Returns the element at index i.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("get: index " + i + " out of bounds (size " + size + ")");
+        }
+        return (T) items[i];
+    }
+
+    /**
+     * Returns the number of elements currently stored.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long opSteps() {
+        return opSteps;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass, keeping the order of the rest.
+     * Survivors are compacted toward the front and their slots repointed; removed elements'
+     * slots are retired.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            T e = (T) items[r];
+            if (filter.test(e)) {
+                freeSlot(slotOf[r]);
+                continue;
+            }
+            if (w != r) {
+                items[w] = e;
+                slotOf[w] = slotOf[r];
+                index[slotOf[w]] = w;
+            }
+            w++;
+        }
+        if (w == size) return false;
+        Arrays.fill(items, w, size, null); // avoid loitering
+        size = w;
+        return true;
+    }
+
+    /**
+     * Returns a cursor over the dense array, in order. Its remove() shifts the rest left like
+     * remove(int).
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    /** Index-based cursor over the dense array. */
+    private final class Itr implements Iterator<T> {
+        /** Index of the next element to return. */
+        private int cursor;
+        /** Index of the last element returned, or -1 if none / already removed. */
+        private int lastRet = -1;
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (cursor >= size) throw new NoSuchElementException();
+            lastRet = cursor++;
+            return (T) items[lastRet];
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) throw new IllegalStateException();
+            MySlotMap.this.remove(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+        }
+    }
+}
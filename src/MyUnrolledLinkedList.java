@@ -0,0 +1,331 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Unrolled linked list: a doubly linked chain of fixed-size array chunks.
+ * Sweeps read CHUNK consecutive slots per hop, so iteration runs close to array speed,
+ * while an insert or remove only shifts the elements of one chunk.
+ * Every chunk holds at least one element; the list is empty exactly when head is null.
+ */
+public class MyUnrolledLinkedList<T> implements List<T> {
+    /** Slots per chunk. */
+    static final int CHUNK = 64;
+
+    /** One array segment of the list. */
+    private static final class Chunk {
+        final Object[] items = new Object[CHUNK];
+        int count;
+        Chunk prev, next;
+    }
+
+    /** First chunk (null if empty). */
+    private Chunk head;
+    /** Last chunk (null if empty). */
+    private Chunk tail;
+    /** Number of elements. */
+    private int size;
+    /** Emptied chunks kept for reuse, chained through next. */
+    private Chunk free;
+    /** Chunk hops and element shifts by indexed operations; see {@link #opSteps}. */
+    private long opSteps;
+    /** Offset within the chunk returned by the last call to chunkAt. */
+    private int found;
+
+    /** Create empty list. */
+    public MyUnrolledLinkedList() {
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+    }
+
+    /**
+     * Returns a recycled chunk, or a new one if none are free.
+     */
+    private Chunk obtain() {
+        Chunk c = free;
+        if (c == null) return new Chunk();
+        free = c.next;
+        c.next = null;
+        return c;
+    }
+
+    /**
+     * Clears a chunk that has been unlinked and pushes it onto the free list.
+     */
+    private void recycle(Chunk c) {
+        Arrays.fill(c.items, 0, c.count, null); // avoid loitering
+        c.count = 0;
+        c.prev = null;
+        c.next = free;
+        free = c;
+    }
+
+    /** Links a fresh chunk after c (or as the only chunk when c is null) and returns it. */
+    private Chunk linkAfter(Chunk c) {
+        Chunk n = obtain();
+        n.prev = c;
+        if (c == null) {
+            head = n;
+            tail = n;
+        } else {
+            n.next = c.next;
+            if (c.next == null) tail = n;
+            else c.next.prev = n;
+            c.next = n;
+        }
+        return n;
+    }
+
+    /** Unlinks a chunk in O(1), fixing head/tail, and recycles it. */
+    private void unlink(Chunk c) {
+        if (c.prev == null) head = c.next;
+        else c.prev.next = c.next;
+        if (c.next == null) tail = c.prev;
+        else c.next.prev = c.prev;
+        recycle(c);
+    }
+
+    /**
+     * Returns the chunk holding index and stores the offset within it in {@link #found}.
+     * Walks chunk counts from whichever end is nearer. index may equal size, which
+     * resolves to the end of the tail chunk.
+     */
+    private Chunk chunkAt(int index) {
+        if (index <= (size >> 1)) {
+            Chunk c = head;
+            while (index >= c.count && c.next != null) {
+                index -= c.count;
+                c = c.next;
+                opSteps++;
+            }
+            found = index;
+            return c;
+        }
+        Chunk c = tail;
+        int start = size - c.count;
+        while (index < start) {
+            c = c.prev;
+            start -= c.count;
+            opSteps++;
+        }
+        found = index - start;
+        return c;
+    }
+
+    /**
+     * Append to the end, opening a new tail chunk when the current one is full.
+     */
+    @Override
+    public boolean add(T data) {
+        Chunk c = tail;
+        if (c == null || c.count == CHUNK) c = linkAfter(c);
+        c.items[c.count++] = data;
+        size++;
+        return true;
+    }
+
+    /**
+     * Appends all of items: tops up the tail chunk, then fills fresh chunks slot by slot.
+     * Another MyArrayList or unrolled list is copied a chunk-sized run at a time.
+     */
+    @Override
+    public boolean addAll(List<? extends T> items) {
+        int n = items.size();
+        if (n == 0) return false;
+        int done = 0;
+        Chunk c = tail;
+        if (items instanceof MyUnrolledLinkedList) {
+            for (Chunk src = ((MyUnrolledLinkedList<?>) items).head; done < n; src = src.next) {
+                for (int from = 0; from < src.count && done < n; ) {
+                    if (c == null || c.count == CHUNK) c = linkAfter(c);
+                    int k = Math.min(Math.min(CHUNK - c.count, src.count - from), n - done);
+                    System.arraycopy(src.items, from, c.items, c.count, k);
+                    c.count += k;
+                    from += k;
+                    done += k;
+                }
+            }
+        } else {
+            for (T e : items) {
+                if (done == n) break;
+                if (c == null || c.count == CHUNK) c = linkAfter(c);
+                c.items[c.count++] = e;
+                done++;
+            }
+        }
+        size += n;
+        return true;
+    }
+
+    /**
+     * Insert at index.
+     * A full chunk is split in half first, so the shift never exceeds one chunk.
+     */
+    @Override
+    public void add(int index, T data) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+        if (index == size) {
+            add(data);
+            return;
+        }
+        Chunk c = chunkAt(index);
+        int at = found;
+        if (c.count == CHUNK) {
+            Chunk n = linkAfter(c);
+            int half = CHUNK / 2;
+            System.arraycopy(c.items, half, n.items, 0, CHUNK - half);
+            Arrays.fill(c.items, half, CHUNK, null);
+            n.count = CHUNK - half;
+            c.count = half;
+            opSteps += CHUNK - half;
+            if (at > half) {
+                c = n;
+                at -= half;
+            }
+        }
+        System.arraycopy(c.items, at, c.items, at + 1, c.count - at);
+        opSteps += c.count - at;
+        c.items[at] = data;
+        c.count++;
+        size++;
+    }
+
+    /**
+     * Remove at index and return its data.
+     * A chunk that falls under half full absorbs its successor when both fit in one chunk.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        Chunk c = chunkAt(index);
+        T data = (T) c.items[found];
+        removeAt(c, found);
+        if (c.count > 0 && c.count < CHUNK / 2 && c.next != null && c.count + c.next.count <= CHUNK) {
+            Chunk n = c.next;
+            System.arraycopy(n.items, 0, c.items, c.count, n.count);
+            opSteps += n.count;
+            c.count += n.count;
+            unlink(n);
+        }
+        return data;
+    }
+
+    /** Removes slot i of chunk c, unlinking the chunk if that empties it. */
+    private void removeAt(Chunk c, int i) {
+        System.arraycopy(c.items, i + 1, c.items, i, c.count - 1 - i);
+        opSteps += c.count - 1 - i;
+        c.items[--c.count] = null; // avoid loitering
+        size--;
+        if (c.count == 0) unlink(c);
+    }
+
+    /**
+     * Get element at index.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+        Chunk c = chunkAt(index);
+        return (T) c.items[found];
+    }
+
+    /** Current number of elements. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long opSteps() {
+        return opSteps;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass.
+     * Each chunk is compacted in place, so a removal only moves the rest of its own chunk;
+     * a chunk left under half full is folded into its predecessor when both fit.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        boolean removed = false;
+        Chunk c = head;
+        while (c != null) {
+            Chunk next = c.next;
+            int n = c.count;
+            int w = 0;
+            for (int r = 0; r < n; r++) {
+                T e = (T) c.items[r];
+                if (filter.test(e)) continue;
+                if (w != r) c.items[w] = e;
+                w++;
+            }
+            if (w != n) {
+                removed = true;
+                Arrays.fill(c.items, w, n, null); // avoid loitering
+                size -= n - w;
+                c.count = w;
+                Chunk p = c.prev;
+                if (w == 0) {
+                    unlink(c);
+                } else if (p != null && w < CHUNK / 2 && p.count + w <= CHUNK) {
+                    System.arraycopy(c.items, 0, p.items, p.count, w);
+                    p.count += w;
+                    unlink(c);
+                }
+            }
+            c = next;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a cursor from the first element to the last.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    /** Forward cursor over chunk slots; remove() shifts within the current chunk only. */
+    private final class Itr implements Iterator<T> {
+        /** Chunk and slot of the next element to return. */
+        private Chunk chunk = head;
+        private int slot;
+        /** Chunk and slot of the last element returned; lastChunk is null if none / already removed. */
+        private Chunk lastChunk;
+        private int lastSlot;
+
+        @Override
+        public boolean hasNext() {
+            return chunk != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (chunk == null) throw new NoSuchElementException();
+            lastChunk = chunk;
+            lastSlot = slot;
+            T e = (T) chunk.items[slot++];
+            if (slot == chunk.count) {
+                chunk = chunk.next;
+                slot = 0;
+            }
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            if (lastChunk == null) throw new IllegalStateException();
+            // the cursor is either later in the same chunk (step it back one) or in a later chunk
+            if (lastChunk == chunk) slot--;
+            removeAt(lastChunk, lastSlot);
+            lastChunk = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import java.util.Arrays;
+
+/**
+ * Free list of objects that are no longer in use, so they can be handed out again
+ * instead of allocating. Not thread safe; callers reset the state of what they take.
+ */
+final class ObjectPool<T> {
+    private Object[] items = new Object[64];
+    private int size;
+
+    /**
+     * Returns a previously released object, or null if the pool is empty.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        if (size == 0) return null;
+        T t = (T) items[--size];
+        items[size] = null;
+        return t;
+    }
+
+    /**
+     * Returns an object to the pool. The caller must hold no other reference to it.
+     */
+    void release(T t) {
+        if (size == items.length) items = Arrays.copyOf(items, size * 2);
+        items[size++] = t;
+    }
+
+    /** Number of objects waiting to be reused. */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the step and off-screen phases of a tick across a ForkJoinPool.
+ *
+ * Bodies are split into contiguous index ranges; each task steps its range and writes
+ * a per-index cull flag into a shared mask. Workers never touch the same index, and the
+ * mask is consumed afterwards by a single sequential cull, so the result does not depend
+ * on how the work was scheduled.
+ */
+final class ParallelTick {
+    /** Ranges at or below this size are processed by one task without splitting. */
+    static final int GRAIN = 8192;
+
+    private final ForkJoinPool pool;
+    /** Cull flags indexed like the bodies being stepped; reused across ticks. */
+    private boolean[] mask = new boolean[0];
+    /** Snapshot of list bodies so workers can index them; reused across ticks. */
+    private Simulation.Body[] scratch = new Simulation.Body[0];
+
+    ParallelTick(int threads) {
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /** Stops the worker threads. */
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Steps every body in the store and marks off-screen comets.
+     * Returns the mask; entries [0, store.size()) are valid.
+     */
+    boolean[] stepAndMark(BodyStore store, int w, int h) {
+        int n = store.size();
+        if (mask.length < n) mask = new boolean[Math.max(n, mask.length * 2)];
+        run(new StoreTask(store, mask, w, h, 0, n), n);
+        return mask;
+    }
+
+    /**
+     * Steps every body in the list and marks off-screen comets, in list order.
+     * Returns the mask; entries [0, n) are valid where n is the list size on entry.
+     */
+    boolean[] stepAndMark(List<Simulation.Body> bodies, int w, int h) {
+        int n = bodies.size();
+        if (scratch.length < n) scratch = new Simulation.Body[Math.max(n, scratch.length * 2)];
+        if (mask.length < n) mask = new boolean[Math.max(n, mask.length * 2)];
+        int i = 0;
+        for (Simulation.Body b : bodies) scratch[i++] = b;
+        run(new BodiesTask(scratch, mask, w, h, 0, n), n);
+        java.util.Arrays.fill(scratch, 0, n, null); // don't pin culled bodies
+        return mask;
+    }
+
+    /**
+     * Small populations are not worth a hand-off to the pool; run them on the caller.
+     */
+    private void run(RecursiveAction task, int n) {
+        if (n <= GRAIN) task.invoke();
+        else pool.invoke(task);
+    }
+
+    /** Step + mark over a range of a BodyStore. */
+    @SuppressWarnings("serial") // fork/join tasks are never serialized
+    private static final class StoreTask extends RecursiveAction {
+        private final BodyStore store;
+        private final boolean[] mask;
+        private final int w, h, from, to;
+
+        StoreTask(BodyStore store, boolean[] mask, int w, int h, int from, int to) {
+            this.store = store;
+            this.mask = mask;
+            this.w = w; this.h = h;
+            this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                store.step(from, to);
+                for (int i = from; i < to; i++) {
+                    mask[i] = store.kind[i] != BodyStore.STAR && store.offScreen(i, w, h);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new StoreTask(store, mask, w, h, from, mid),
+                      new StoreTask(store, mask, w, h, mid, to));
+        }
+    }
+
+    /** Step + mark over a range of Body objects. */
+    @SuppressWarnings("serial") // fork/join tasks are never serialized
+    private static final class BodiesTask extends RecursiveAction {
+        private final Simulation.Body[] bodies;
+        private final boolean[] mask;
+        private final int w, h, from, to;
+
+        BodiesTask(Simulation.Body[] bodies, boolean[] mask, int w, int h, int from, int to) {
+            this.bodies = bodies;
+            this.mask = mask;
+            this.w = w; this.h = h;
+            this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                for (int i = from; i < to; i++) {
+                    Simulation.Body b = bodies[i];
+                    b.step();
+                    mask[i] = b.kind != Simulation.Kind.STAR && b.offScreen(w, h);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BodiesTask(bodies, mask, w, h, from, mid),
+                      new BodiesTask(bodies, mask, w, h, mid, to));
+        }
+    }
+}
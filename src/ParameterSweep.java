@@ -0,0 +1,235 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs every combination of a grid of property overrides as an independent headless
+ * simulation, one per pool thread, and prints a summary row per combination.
+ *
+ * The base properties come from the config file; each {@code key=v1,v2,...} argument adds
+ * one axis to the grid. Keys that write files or register listeners ({@code event_log},
+ * {@code snapshot_dir}, {@code metrics}, {@code metrics_csv}, {@code watch_config}) are
+ * dropped, since concurrent runs would share them. Every run is forced to {@code threads = 1}:
+ * the sweep already keeps each core busy with one run, so per-run worker pools would only
+ * oversubscribe the cores, and the allocation figure would miss what their workers allocate.
+ * An axis over {@code threads} or a dropped key is therefore rejected.
+ *
+ * Each row reports the mean body count over the second half of the run (the steady state),
+ * the peak body count, ticks per second, and the bytes its thread allocated. The heap is
+ * shared, so peak heap is reported once for the whole sweep.
+ *
+ * Usage: {@code java ParameterSweep <config> <ticks> key=v1,v2,... [key=...] [--threads N] [--out file.tsv]}
+ */
+public final class ParameterSweep {
+    private ParameterSweep() {}
+
+    /** Keys whose side effects would collide between concurrent runs. */
+    private static final String[] DROPPED = { "event_log", "snapshot_dir", "metrics", "metrics_csv", "watch_config" };
+
+    /** One grid axis: a key and the values it takes. */
+    static final class Axis {
+        final String key;
+        final String[] values;
+
+        Axis(String key, String[] values) {
+            this.key = key;
+            this.values = values;
+        }
+    }
+
+    /** Outcome of one run; error is non-null if its config was rejected or a tick threw. */
+    static final class Result {
+        final String overrides;
+        long seed;
+        double steadyBodies;
+        int peakBodies;
+        double ticksPerSecond;
+        long allocatedBytes;
+        String error;
+
+        Result(String overrides) {
+            this.overrides = overrides;
+        }
+    }
+
+    /**
+     * Parses {@code key=v1,v2,...} into an axis.
+     */
+    static Axis parseAxis(String arg) {
+        int eq = arg.indexOf('=');
+        if (eq <= 0 || eq == arg.length() - 1) {
+            throw new IllegalArgumentException("Invalid sweep axis: " + arg + " (expected key=v1,v2,...)");
+        }
+        String key = arg.substring(0, eq).trim();
+        if (key.equals("threads")) {
+            throw new IllegalArgumentException("Invalid sweep axis: " + arg + " (runs are single-threaded; use --threads for the sweep)");
+        }
+        for (String dropped : DROPPED) {
+            if (key.equals(dropped)) {
+                throw new IllegalArgumentException("Invalid sweep axis: " + arg + " (" + key + " is dropped from every run)");
+            }
+        }
+        String[] values = arg.substring(eq + 1).split(",");
+        for (int i = 0; i < values.length; i++) values[i] = values[i].trim();
+        return new Axis(key, values);
+    }
+
+    /**
+     * Returns the base properties with combination number k of the grid applied, counting
+     * with the last axis varying fastest.
+     */
+    static Properties combination(Properties base, java.util.List<Axis> axes, int k) {
+        Properties p = new Properties();
+        p.putAll(base);
+        for (String key : DROPPED) p.remove(key);
+        for (int a = axes.size() - 1; a >= 0; a--) {
+            Axis axis = axes.get(a);
+            p.setProperty(axis.key, axis.values[k % axis.values.length]);
+            k /= axis.values.length;
+        }
+        p.setProperty("threads", "1");
+        return p;
+    }
+
+    /** Describes a combination by its swept keys, as {@code key=value ...}. */
+    static String describe(Properties p, java.util.List<Axis> axes) {
+        StringBuilder sb = new StringBuilder();
+        for (Axis axis : axes) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(axis.key).append('=').append(p.getProperty(axis.key));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Runs one simulation for n ticks on the calling thread and summarizes it. A rejected
+     * config or an exception from a tick is reported in the result rather than thrown, so
+     * one bad combination does not cost the rest of the sweep.
+     */
+    static Result run(Properties p, String overrides, long n) {
+        Result r = new Result(overrides);
+        Simulation sim;
+        try {
+            sim = new Simulation(SimConfig.fromProperties(p));
+        } catch (IllegalArgumentException e) {
+            r.error = "rejected: " + e.getMessage();
+            return r;
+        }
+        try {
+            long warm = n / 2;
+            long sum = 0;
+            int peak = 0;
+            long a0 = Allocation.allocatedBytes();
+            long start = System.nanoTime();
+            for (long t = 0; t < n; t++) {
+                sim.tick();
+                int bodies = sim.bodyCount();
+                if (bodies > peak) peak = bodies;
+                if (t >= warm) sum += bodies;
+            }
+            long nanos = System.nanoTime() - start;
+            long a1 = Allocation.allocatedBytes();
+            r.seed = sim.seed();
+            r.steadyBodies = (double) sum / Math.max(1, n - warm);
+            r.peakBodies = peak;
+            r.ticksPerSecond = n / Math.max(nanos / 1e9, 1e-9);
+            r.allocatedBytes = a0 < 0 ? -1 : a1 - a0;
+        } catch (RuntimeException e) {
+            r.seed = sim.seed();
+            r.error = "failed at tick " + sim.tickCount() + ": " + e;
+        } finally {
+            sim.close();
+        }
+        return r;
+    }
+
+    /** Sum of the peak usage of every heap pool since the JVM started. */
+    static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println("usage: ParameterSweep <config> <ticks> key=v1,v2,... [key=...] [--threads N] [--out file.tsv]");
+            System.exit(2);
+        }
+        Properties base = SimConfig.loadProperties(args[0]);
+        long n = Long.parseLong(args[1].trim());
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        java.util.List<Axis> axes = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i].trim()));
+            } else if (args[i].equals("--out") && i + 1 < args.length) {
+                out = args[++i];
+            } else {
+                axes.add(parseAxis(args[i]));
+            }
+        }
+        int combos = 1;
+        for (Axis axis : axes) combos = Math.multiplyExact(combos, axis.values.length);
+
+        // each run is single-threaded, so one pool thread per core keeps every core busy
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        java.util.List<Future<Result>> futures = new ArrayList<>(combos);
+        int width = "overrides".length();
+        long start = System.nanoTime();
+        for (int k = 0; k < combos; k++) {
+            Properties p = combination(base, axes, k);
+            String overrides = describe(p, axes);
+            width = Math.max(width, overrides.length());
+            futures.add(pool.submit(() -> run(p, overrides, n)));
+        }
+        pool.shutdown();
+
+        PrintWriter tsv = null;
+        if (out != null) {
+            tsv = new PrintWriter(new FileWriter(out, false));
+            tsv.println("overrides\tseed\tsteady_bodies\tpeak_bodies\tticks_per_s\talloc_bytes\terror");
+        }
+        String row = "%-" + width + "s";
+        System.out.printf(row + " %20s %13s %11s %12s %10s%n", "overrides", "seed", "steady_bodies", "peak_bodies", "ticks/s", "alloc_MB");
+        try {
+            for (Future<Result> f : futures) {
+                Result r;
+                try {
+                    r = f.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Sweep run failed", e.getCause());
+                }
+                if (r.error != null) {
+                    System.out.printf(row + " %s%n", r.overrides, r.error);
+                } else {
+                    System.out.printf(row + " %20d %13.1f %11d %12.1f %10.1f%n", r.overrides, r.seed, r.steadyBodies,
+                        r.peakBodies, r.ticksPerSecond, r.allocatedBytes / 1e6);
+                }
+                if (tsv != null) {
+                    tsv.printf("%s\t%d\t%.1f\t%d\t%.1f\t%d\t%s%n", r.overrides, r.seed, r.steadyBodies, r.peakBodies,
+                        r.ticksPerSecond, r.allocatedBytes, r.error == null ? "" : r.error);
+                }
+            }
+        } finally {
+            if (tsv != null) {
+                tsv.close();
+                if (tsv.checkError()) throw new UncheckedIOException(new IOException("Failed writing " + out));
+            }
+        }
+        System.out.printf("%d runs on %d threads in %.3fs, peak heap %.1f MB%n", combos, threads,
+            (System.nanoTime() - start) / 1e9, peakHeapBytes() / 1e6);
+    }
+}
@@ -0,0 +1,122 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws a {@link Frame} into a reusable offscreen image and blits it in one call.
+ *
+ * Bodies that do not intersect the viewport are skipped. Discs up to
+ * MAX_RASTER_RADIUS are written straight into the image's int[] raster using cached
+ * per-radius span tables, so they cost no Graphics calls at all. Larger discs go through
+ * Graphics.fillOval, batched so the color is set once per distinct color; they are painted
+ * first, underneath the raster discs. Raster discs keep body order, so with the default
+ * sizes (star 30, comets 10) the frame matches the old per-body fillOval loop.
+ */
+final class Renderer {
+    /** Discs up to this radius are rasterized directly. */
+    static final int MAX_RASTER_RADIUS = 64;
+    private static final int BACKGROUND = 0xFFFFFF;
+
+    private final int w, h;
+    private final BufferedImage image;
+    private final int[] raster;
+    /** spans[r][dy + r] = half width of a radius-r disc on row dy; built on first use. */
+    private final int[][] spans = new int[MAX_RASTER_RADIUS + 1][];
+    /** paintLarge's sort keys, (group << 32 | frame index); reused across frames. */
+    private long[] large = new long[16];
+
+    Renderer(int w, int h) {
+        this.w = w;
+        this.h = h;
+        this.image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        this.raster = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /** True if a disc lies at least partly inside the viewport. */
+    private boolean visible(int cx, int cy, int r) {
+        return cx + r >= 0 && cx - r < w && cy + r >= 0 && cy - r < h;
+    }
+
+    /**
+     * Renders every visible disc of the frame into the offscreen image and draws it onto g.
+     */
+    void render(Frame f, Graphics g) {
+        Arrays.fill(raster, BACKGROUND);
+        paintLarge(f);
+        int[] x = f.x, y = f.y, r = f.r, c = f.rgb;
+        for (int i = 0; i < f.count; i++) {
+            if (r[i] <= MAX_RASTER_RADIUS && visible(x[i], y[i], r[i])) rasterDisc(x[i], y[i], r[i], c[i]);
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * Draws visible discs too big for the raster path, one setColor per distinct color:
+     * colors in order of first appearance, each color's discs in frame order. Sorting the
+     * discs by (color, index), then by (first index of their color, index), gives that order
+     * in O(L log L) for L large discs.
+     */
+    private void paintLarge(Frame f) {
+        int n = 0;
+        for (int i = 0; i < f.count; i++) {
+            int r = f.r[i];
+            if (r > MAX_RASTER_RADIUS && visible(f.x[i], f.y[i], r)) {
+                if (n == large.length) large = Arrays.copyOf(large, n * 2);
+                large[n++] = (long) f.rgb[i] << 32 | i;
+            }
+        }
+        if (n == 0) return;
+        Arrays.sort(large, 0, n);
+        long first = 0, color = 0;
+        for (int k = 0; k < n; k++) {
+            int i = (int) large[k];
+            if (k == 0 || large[k] >> 32 != color) {
+                color = large[k] >> 32;
+                first = i;
+            }
+            large[k] = first << 32 | i;
+        }
+        Arrays.sort(large, 0, n);
+        Graphics2D g2 = image.createGraphics();
+        for (int k = 0; k < n; k++) {
+            int i = (int) large[k];
+            if (k == 0 || large[k] >> 32 != large[k - 1] >> 32) g2.setColor(new Color(f.rgb[i]));
+            int r = f.r[i];
+            g2.fillOval(f.x[i] - r, f.y[i] - r, r * 2, r * 2);
+        }
+        g2.dispose();
+    }
+
+    /**
+     * Returns the half-width table for a disc of radius r.
+     */
+    private int[] spansFor(int r) {
+        int[] s = spans[r];
+        if (s == null) {
+            s = new int[2 * r + 1];
+            for (int dy = -r; dy <= r; dy++) {
+                s[dy + r] = (int) Math.floor(Math.sqrt((double) r * r - (double) dy * dy));
+            }
+            spans[r] = s;
+        }
+        return s;
+    }
+
+    /**
+     * Writes a filled disc straight into the raster, clipped to the image.
+     */
+    private void rasterDisc(int cx, int cy, int r, int rgb) {
+        int[] s = spansFor(r);
+        int y0 = Math.max(cy - r, 0), y1 = Math.min(cy + r, h - 1);
+        for (int y = y0; y <= y1; y++) {
+            int half = s[y - cy + r];
+            int x0 = Math.max(cx - half, 0), x1 = Math.min(cx + half, w - 1);
+            if (x0 > x1) continue;
+            int row = y * w;
+            Arrays.fill(raster, row + x0, row + x1 + 1, rgb);
+        }
+    }
+}
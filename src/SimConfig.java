@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Holds every value read from the simulation's configuration file.
+ * Uses documented defaults when properties are missing or malformed.
+ */
+public final class SimConfig implements Cloneable {
+    int timerDelay;
+    String listType;
+    int initialCapacity; // bodies the list or store has room for before it first grows
+    String storeType; // "list" (Body objects in listType) or "soa" (BodyStore)
+    String cullMode;  // scan (test every body each tick) | wheel (ExitWheel; soa only)
+    String kernel;    // scalar (per-body step and test) | block (StepKernel; soa only)
+    int winW, winH;
+    int worldW, worldH; // spawn/cull bounds; default to the window
+    int viewX, viewY;   // world position of the window's top-left corner
+    boolean follow;     // centre the window on one comet, held by MySlotMap handle (list = slotmap)
+    int tileSize;       // > 0 partitions the world into square tiles (TiledWorld; soa only)
+
+    int starX, starY; // treated as center
+    int starSize;
+    int starVx, starVy;
+
+    double genX; // probability to spawn along top/bottom each tick (mean spawns per tick in batch mode)
+    double genY; // probability to spawn along left/right each tick (mean spawns per tick in batch mode)
+    String spawnMode; // edge (one coin flip per edge pair) | batch (Spawner)
+    int spawnQueue;   // > 0: capacity of the SpawnQueue other threads can push comets into
+    int bodySize;
+    int bodyVelMax;
+
+    double bodyMass, starMass; // kilograms
+    String gravity;            // none | star | nbody
+    double metersPerPixel;
+    double secondsPerTick;
+    double theta;              // Barnes-Hut opening angle
+
+    String collisions;         // none | star | all
+
+    Long seed;                 // null: pick one at random
+    String eventLog;           // file to record spawn/cull events to; null: off
+    String snapshotDir;        // directory to stream per-tick positions to; null: off
+    int snapshotSegmentMb;
+
+    int threads; // > 1 runs step/off-screen on a ForkJoinPool of this size
+
+    boolean metrics;           // per-tick timings and counters, exposed over JMX
+    String metricsCsv;         // file to append a metrics row to periodically; null: off
+    int metricsIntervalMs;
+
+    boolean watchConfig;       // reload the live-tunable keys when the file changes
+    String source;             // classpath resource this was loaded from; null if built directly
+
+    private SimConfig() {}
+
+    /**
+     * Reads an integer property, falling back to a default if missing or invalid.
+     */
+    static int getInt(Properties p, String k, int dflt) {
+        String v = p.getProperty(k);
+        if (v == null) return dflt;
+        try { return (int) Math.round(Double.parseDouble(v.trim())); }
+        catch (Exception e) { return dflt; }
+    }
+
+    /**
+     * Reads a double property, falling back to a default if missing or invalid.
+     */
+    static double getDouble(Properties p, String k, double dflt) {
+        String v = p.getProperty(k);
+        if (v == null) return dflt;
+        try { return Double.parseDouble(v.trim()); }
+        catch (Exception e) { return dflt; }
+    }
+
+    /**
+     * Reads an integer property for a reload: a missing key keeps current, and a value that
+     * does not parse is an error rather than a silent fallback.
+     */
+    static int reloadInt(Properties p, String k, int current) {
+        return (int) Math.round(reloadDouble(p, k, current));
+    }
+
+    /**
+     * Reads a double property for a reload; see {@link #reloadInt}.
+     */
+    static double reloadDouble(Properties p, String k, double current) {
+        String v = p.getProperty(k);
+        if (v == null) return current;
+        try { return Double.parseDouble(v.trim()); }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid '" + k + "' value: " + v.trim() + " (expected a number)");
+        }
+    }
+
+    /**
+     * Builds a config from already-loaded properties.
+     */
+    static SimConfig fromProperties(Properties p) {
+        SimConfig c = new SimConfig();
+        c.timerDelay = getInt(p, "timer_delay", 75);
+
+        c.listType = p.getProperty("list", "arraylist");
+        c.initialCapacity = Math.max(1, getInt(p, "initial_capacity", 1024));
+        c.storeType = p.getProperty("store", "list").trim().toLowerCase();
+        c.cullMode = p.getProperty("cull", "scan").trim().toLowerCase();
+        c.kernel = p.getProperty("kernel", "scalar").trim().toLowerCase();
+
+        c.winW = getInt(p, "window_size_x", 1024);
+        c.winH = getInt(p, "window_size_y", 768);
+        c.worldW = Math.max(1, getInt(p, "world_size_x", c.winW));
+        c.worldH = Math.max(1, getInt(p, "world_size_y", c.winH));
+        c.follow = Boolean.parseBoolean(p.getProperty("follow", "false").trim());
+        c.tileSize = Math.max(0, getInt(p, "tile_size", 0));
+
+        c.starX = getInt(p, "star_position_x", 512);
+        c.starY = getInt(p, "star_position_y", 384);
+        c.starSize = getInt(p, "star_size", 30);
+        c.starVx = getInt(p, "star_velocity_x", 0);
+        c.starVy = getInt(p, "star_velocity_y", 0);
+        // a world that fits the window is drawn as before; a larger one starts centred on the star
+        c.viewX = getInt(p, "viewport_x", c.worldW > c.winW ? c.starX - c.winW / 2 : 0);
+        c.viewY = getInt(p, "viewport_y", c.worldH > c.winH ? c.starY - c.winH / 2 : 0);
+
+        c.genX = getDouble(p, "gen_x", 0.06);
+        c.genY = getDouble(p, "gen_y", 0.06);
+        c.spawnMode = p.getProperty("spawn", "edge").trim().toLowerCase();
+        c.spawnQueue = Math.max(0, getInt(p, "spawn_queue", 0));
+
+        c.bodySize = getInt(p, "body_size", 10);
+        c.bodyVelMax = Math.max(1, getInt(p, "body_velocity", 3));
+
+        c.bodyMass = getDouble(p, "body_mass", 1E21);
+        c.starMass = getDouble(p, "star_mass", 2E29);
+        c.gravity = p.getProperty("gravity", "none").trim().toLowerCase();
+        c.metersPerPixel = getDouble(p, "meters_per_pixel", 2E5);
+        c.secondsPerTick = getDouble(p, "seconds_per_tick", 1);
+        c.theta = getDouble(p, "theta", 0.5);
+
+        c.collisions = p.getProperty("collisions", "none").trim().toLowerCase();
+
+        String seed = p.getProperty("seed");
+        if (seed != null) {
+            try { c.seed = Long.parseLong(seed.trim()); }
+            catch (NumberFormatException e) { c.seed = null; }
+        }
+        String log = p.getProperty("event_log");
+        c.eventLog = log == null || log.trim().isEmpty() ? null : log.trim();
+        String snap = p.getProperty("snapshot_dir");
+        c.snapshotDir = snap == null || snap.trim().isEmpty() ? null : snap.trim();
+        c.snapshotSegmentMb = Math.max(1, getInt(p, "snapshot_segment_mb", 64));
+
+        c.threads = Math.max(1, getInt(p, "threads", 1));
+
+        String csv = p.getProperty("metrics_csv");
+        c.metricsCsv = csv == null || csv.trim().isEmpty() ? null : csv.trim();
+        c.metrics = c.metricsCsv != null || Boolean.parseBoolean(p.getProperty("metrics", "false").trim());
+        c.metricsIntervalMs = Math.max(1, getInt(p, "metrics_interval_ms", 1000));
+
+        c.watchConfig = Boolean.parseBoolean(p.getProperty("watch_config", "false").trim());
+        return c;
+    }
+
+    /**
+     * Returns the file behind a classpath resource path.
+     */
+    static Path resolve(String propPath) {
+        // the configuration file name
+        ClassLoader classLoader = SimConfig.class.getClassLoader();
+
+        // Make sure that the configuration file exists
+        URL res = Objects.requireNonNull(classLoader.getResource(propPath),
+            "Can't find configuration file " + propPath);
+        return Paths.get(res.getFile());
+    }
+
+    /**
+     * Loads the properties file at the given classpath resource path.
+     */
+    static Properties loadProperties(String propPath) throws IOException {
+        Properties p = new Properties();
+        try (InputStream is = new java.io.FileInputStream(resolve(propPath).toFile())) {
+            // load the properties file
+            p.load(is);
+        }
+        return p;
+    }
+
+    /**
+     * Loads all configuration values from a classpath resource path.
+     * Falls back to defaults for everything if the file cannot be read.
+     */
+    public static SimConfig load(String propPath) {
+        Properties p = new Properties();
+        try {
+            p = loadProperties(propPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        SimConfig c = fromProperties(p);
+        c.source = propPath;
+        return c;
+    }
+
+    /**
+     * Returns a copy of this config with the keys that can change while running
+     * (timer_delay, gen_x, gen_y, body_size, body_velocity, body_mass, list) read from the
+     * reloaded file. A live key missing from it keeps its current value, as does every other
+     * key until restart. Throws IllegalArgumentException if a live key is present but does
+     * not parse, or names an unknown list, so a bad edit is rejected as a whole.
+     */
+    SimConfig reloaded(Properties p) {
+        SimConfig c;
+        try {
+            c = (SimConfig) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        c.timerDelay = reloadInt(p, "timer_delay", timerDelay);
+        c.genX = reloadDouble(p, "gen_x", genX);
+        c.genY = reloadDouble(p, "gen_y", genY);
+        c.bodySize = reloadInt(p, "body_size", bodySize);
+        c.bodyVelMax = Math.max(1, reloadInt(p, "body_velocity", bodyVelMax));
+        c.bodyMass = reloadDouble(p, "body_mass", bodyMass);
+        String list = p.getProperty("list");
+        if (list != null) {
+            ListFactory.fromProperty(list);
+            c.listType = list;
+        }
+        return c;
+    }
+
+    /**
+     * Throws IllegalArgumentException if {@link #reloaded} would reject the given file.
+     */
+    static void checkReload(Properties p) {
+        new SimConfig().reloaded(p);
+    }
+
+    /**
+     * Describes which live-tunable keys differ between this config and next, e.g.
+     * {@code "gen_x 0.06 -> 0.2"}; empty if none do.
+     */
+    String describeChanges(SimConfig next) {
+        StringBuilder sb = new StringBuilder();
+        change(sb, "timer_delay", timerDelay, next.timerDelay);
+        change(sb, "gen_x", genX, next.genX);
+        change(sb, "gen_y", genY, next.genY);
+        change(sb, "body_size", bodySize, next.bodySize);
+        change(sb, "body_velocity", bodyVelMax, next.bodyVelMax);
+        change(sb, "body_mass", bodyMass, next.bodyMass);
+        change(sb, "list", listType.trim().toLowerCase(), next.listType.trim().toLowerCase());
+        return sb.toString();
+    }
+
+    private static void change(StringBuilder sb, String key, Object from, Object to) {
+        if (from.equals(to)) return;
+        if (sb.length() > 0) sb.append(", ");
+        sb.append(key).append(' ').append(from).append(" -> ").append(to);
+    }
+}
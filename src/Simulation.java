@@ -0,0 +1,742 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Owns the simulation state (star, comets, spawn RNG) and advances it one tick at a time.
+ * Has no dependency on a Swing timer, so it can be driven by the window or run headless.
+ */
+public final class Simulation {
+
+    // ----- Types -----
+    /** Simulation body categories. */
+    enum Kind { STAR, COMET }
+
+    /**
+     * A single movable body in the simulation; {@link Renderer} draws it from a {@link Frame}.
+     */
+    static final class Body {
+        Kind kind;
+        double cx, cy;  // center position
+        double vx, vy;  // pixels per tick
+        int radius;     // draw radius
+        Color color;
+        double mass;    // kilograms; only read when gravity is on
+        boolean dead;   // absorbed by a collision; removed by the next cull
+
+        /**
+         * Constructs a Body
+         */
+        Body(Kind kind, double cx, double cy, double vx, double vy, int radius, Color color) {
+            this.kind = kind;
+            this.cx = cx; this.cy = cy;
+            this.vx = vx; this.vy = vy;
+            this.radius = radius;
+            this.color = color;
+        }
+
+        /**
+         * Reinitializes a recycled body as if freshly constructed.
+         */
+        void reset(Kind kind, double cx, double cy, double vx, double vy, int radius, Color color) {
+            this.kind = kind;
+            this.cx = cx; this.cy = cy;
+            this.vx = vx; this.vy = vy;
+            this.radius = radius;
+            this.color = color;
+            this.mass = 0;
+            this.dead = false;
+        }
+
+        /**
+         * Advances the body's position by one tick using its velocity.
+         */
+        void step() { cx += vx; cy += vy; }
+
+        /**
+         * Determines whether this body lies entirely outside a w x h area (the world).
+         */
+        boolean offScreen(int w, int h) {
+            return cx + radius < 0 || cx - radius > w || cy + radius < 0 || cy - radius > h;
+        }
+    }
+
+    // ----- State -----
+    /** Current config; replaced between ticks when a reload is applied. */
+    private SimConfig cfg;
+    /** Reloaded config file waiting for the next tick boundary; set from the watcher thread. */
+    private final AtomicReference<Properties> pendingConfig = new AtomicReference<>();
+    /** File watcher when {@code watch_config} is on; null otherwise. */
+    private ConfigWatcher watcher;
+    /** Seed of the spawn RNG; from the {@code seed} key, or picked at random and reported. */
+    private final long seed;
+    private final Random rng;
+    /** Batch spawner when {@code spawn = batch}; null for the per-edge coin flips. */
+    private final Spawner spawner;
+    /** Comets pushed by other threads when {@code spawn_queue > 0}; null otherwise. */
+    private final SpawnQueue spawnQueue;
+    /** Comets drained from spawnQueue at the start of this tick, added in its spawn phase. */
+    private int queued;
+    /** Body objects in the configured List; null when running on the SoA store. */
+    private List<Body> bodies;
+    /** opSteps of lists replaced by a reload, so the metrics counter keeps rising. */
+    private long retiredOpSteps;
+    /** Primitive-array store used when {@code store = soa}; null otherwise. */
+    private final BodyStore store;
+    /** Per-tile stores used instead of store when {@code tile_size > 0}; null otherwise. */
+    private final TiledWorld tiles;
+    /** Exit-tick schedule when {@code cull = wheel}; bodies are then never stepped. Null otherwise. */
+    private final ExitWheel wheel;
+    /** Block step + mark kernel when {@code kernel = block}; null for the scalar loops. */
+    private final StepKernel kernel;
+    /** Fork/join step + mark phase when {@code threads > 1}; null for the sequential tick. */
+    private final ParallelTick parallel;
+    /** Gravitational pull applied before each step; null when {@code gravity = none}. */
+    private final Gravity gravity;
+    /** Star absorption / comet merging after each step; null when {@code collisions = none}. */
+    private final Collisions collisions;
+    /** Cull flags from the parallel phase, consumed in list order by cullMarked; none valid when marked is 0. */
+    private boolean[] marks;
+    private int marked, cullCursor;
+    /** Handle of the comet the window follows ({@code follow}); NO_HANDLE until one is picked. */
+    private long followed = NO_HANDLE;
+    private static final long NO_HANDLE = -1;
+    /** Culled comets waiting to be reused by the next spawn. */
+    private final ObjectPool<Body> bodyPool = new ObjectPool<>();
+    /** A batch spawn's comets, appended to the list with one addAll; empty between ticks. */
+    private final MyArrayList<Body> spawnBatch = new MyArrayList<>();
+    // removeIf filters, bound once so the tick does not allocate them
+    private final Predicate<Body> cullFilter = this::cullAndRecycle;
+    private final Predicate<Body> markedFilter = this::cullMarked;
+    /** Bodies removed / added so far in the current tick. */
+    private int culledThisTick, spawnedThisTick;
+    /** Phase timings and counters when {@code metrics} is on; null otherwise. */
+    private final TickMetrics metrics;
+    /** Event log being written when {@code event_log} is set; null otherwise. */
+    private EventLog.Writer recorder;
+    /** Event log supplying spawns instead of the RNG; null unless replaying. */
+    private EventLog.Reader replay;
+    /** Per-tick position recorder when {@code snapshot_dir} is set; null otherwise. */
+    private SnapshotLog.Writer snapshots;
+    private long ticks;
+
+    /**
+     * Builds the body storage from the configured backing type and seeds the star.
+     */
+    public Simulation(SimConfig cfg) {
+        this.cfg = cfg;
+        this.seed = cfg.seed != null ? cfg.seed : new Random().nextLong();
+        this.rng = new Random(seed);
+        switch (cfg.storeType) {
+            case "list":
+                bodies = ListFactory.fromProperty(cfg.listType, cfg.initialCapacity);
+                store = null;
+                tiles = null;
+                Body star = new Body(Kind.STAR, cfg.starX, cfg.starY, cfg.starVx, cfg.starVy, cfg.starSize, Color.RED);
+                star.mass = cfg.starMass;
+                bodies.add(star);
+                break;
+            case "soa":
+                bodies = null;
+                if (cfg.tileSize > 0) {
+                    store = null;
+                    tiles = new TiledWorld(cfg.worldW, cfg.worldH, cfg.tileSize, cfg.initialCapacity, cfg.threads);
+                    tiles.add(BodyStore.STAR, cfg.starX, cfg.starY, cfg.starVx, cfg.starVy, cfg.starSize, BodyStore.RED);
+                    tiles.handOff();
+                    break;
+                }
+                tiles = null;
+                store = new BodyStore(cfg.initialCapacity);
+                store.add(BodyStore.STAR, cfg.starX, cfg.starY, cfg.starVx, cfg.starVy, cfg.starSize, BodyStore.RED);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid 'store' value: " + cfg.storeType + " (expected list|soa)");
+        }
+        if (cfg.tileSize > 0 && tiles == null) {
+            throw new IllegalArgumentException("tile_size requires store = soa");
+        }
+        switch (cfg.gravity) {
+            case "none":
+                gravity = null;
+                break;
+            case "star":
+            case "nbody":
+                if (bodies == null) {
+                    throw new IllegalArgumentException("gravity = " + cfg.gravity + " requires store = list");
+                }
+                gravity = new Gravity(cfg);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid 'gravity' value: " + cfg.gravity + " (expected none|star|nbody)");
+        }
+        switch (cfg.collisions) {
+            case "none":
+                collisions = null;
+                break;
+            case "star":
+            case "all":
+                if (bodies == null) {
+                    throw new IllegalArgumentException("collisions = " + cfg.collisions + " requires store = list");
+                }
+                collisions = new Collisions(cfg);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid 'collisions' value: " + cfg.collisions + " (expected none|star|all)");
+        }
+        switch (cfg.spawnMode) {
+            case "edge":
+                spawner = null;
+                break;
+            case "batch":
+                spawner = new Spawner(seed);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid 'spawn' value: " + cfg.spawnMode + " (expected edge|batch)");
+        }
+        spawnQueue = cfg.spawnQueue > 0 ? new SpawnQueue(cfg.spawnQueue) : null;
+        switch (cfg.cullMode) {
+            case "scan":
+                wheel = null;
+                break;
+            case "wheel":
+                if (store == null) {
+                    throw new IllegalArgumentException(tiles != null
+                        ? "cull = wheel requires tile_size = 0" : "cull = wheel requires store = soa");
+                }
+                if (cfg.threads > 1) {
+                    throw new IllegalArgumentException("cull = wheel requires threads = 1");
+                }
+                wheel = new ExitWheel();
+                wheel.add(store, 0, 0, cfg.worldW, cfg.worldH); // the star, moving since tick 0
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid 'cull' value: " + cfg.cullMode + " (expected scan|wheel)");
+        }
+        switch (cfg.kernel) {
+            case "scalar":
+                kernel = null;
+                break;
+            case "block":
+                if (store == null) {
+                    throw new IllegalArgumentException(tiles != null
+                        ? "kernel = block requires tile_size = 0" : "kernel = block requires store = soa");
+                }
+                if (wheel != null) {
+                    throw new IllegalArgumentException("kernel = block requires cull = scan");
+                }
+                if (cfg.threads > 1) {
+                    throw new IllegalArgumentException("kernel = block requires threads = 1");
+                }
+                kernel = new StepKernel();
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid 'kernel' value: " + cfg.kernel + " (expected scalar|block)");
+        }
+        if (cfg.follow && !(bodies instanceof MySlotMap)) {
+            throw new IllegalArgumentException("follow requires store = list and list = slotmap");
+        }
+        if (cfg.eventLog != null && cfg.watchConfig) {
+            // live edits to body_size, body_mass, ... are not recorded, so the log would not replay
+            throw new IllegalArgumentException("event_log requires watch_config = false");
+        }
+        parallel = cfg.threads > 1 && tiles == null ? new ParallelTick(cfg.threads) : null;
+        if (cfg.eventLog != null) {
+            try {
+                recorder = new EventLog.Writer(cfg.eventLog, seed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (cfg.snapshotDir != null) {
+            try {
+                snapshots = new SnapshotLog.Writer(cfg.snapshotDir, cfg.snapshotSegmentMb);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (cfg.metrics) {
+            metrics = new TickMetrics(bodies == null ? "soa" : cfg.listType);
+            metrics.spawnQueue(spawnQueue);
+            metrics.registerJmx();
+            if (cfg.metricsCsv != null) {
+                try {
+                    metrics.startCsv(cfg.metricsCsv, cfg.metricsIntervalMs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        } else {
+            metrics = null;
+        }
+        if (cfg.watchConfig && cfg.source != null) {
+            try {
+                watcher = new ConfigWatcher(SimConfig.resolve(cfg.source), this::requestReload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Queues a freshly loaded config file to be applied at the start of the next tick.
+     * Safe to call from any thread; a newer request replaces one not yet applied.
+     */
+    void requestReload(Properties fresh) {
+        pendingConfig.set(fresh);
+    }
+
+    /**
+     * Applies a queued reload, if any, between ticks: swaps in the live-tunable keys and,
+     * when {@code list} changed, moves every body into a new list of that type in order.
+     * Without a list ({@code store = soa}) a {@code list} change is reported and ignored.
+     */
+    private void applyPendingConfig() {
+        Properties fresh = pendingConfig.getAndSet(null);
+        if (fresh == null) return;
+        SimConfig next = cfg.reloaded(fresh);
+        if (bodies == null && !next.listType.trim().equalsIgnoreCase(cfg.listType.trim())) {
+            System.out.println("Config reload at tick " + ticks + ": list ignored, bodies are in a BodyStore");
+            next.listType = cfg.listType;
+        }
+        String changes = cfg.describeChanges(next);
+        if (changes.isEmpty()) return;
+        if (bodies != null && !next.listType.trim().equalsIgnoreCase(cfg.listType.trim())) {
+            List<Body> moved = ListFactory.fromProperty(next.listType, Math.max(next.initialCapacity, bodies.size()));
+            moved.addAll(bodies);
+            retiredOpSteps += bodies.opSteps();
+            bodies = moved;
+            followed = NO_HANDLE; // handles belong to the old list
+            if (metrics != null) metrics.listType(next.listType);
+        }
+        cfg = next;
+        System.out.println("Config reloaded at tick " + ticks + ": " + changes);
+    }
+
+    /**
+     * Takes spawns from a recorded log instead of the RNG from now on. Culls are still
+     * computed, and checked against the log every tick. Call before the first tick.
+     */
+    void replayFrom(EventLog.Reader log) {
+        this.replay = log;
+    }
+
+    /** Releases the worker threads used by the parallel tick, stops the config watcher and flushes the logs and metrics, if any. */
+    public void close() {
+        if (parallel != null) parallel.shutdown();
+        if (tiles != null) tiles.shutdown();
+        if (metrics != null) metrics.close();
+        try {
+            if (watcher != null) watcher.close();
+            if (recorder != null) recorder.close();
+            if (replay != null) replay.close();
+            if (snapshots != null) snapshots.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Returns the seed of the spawn RNG, so a run can be reproduced. */
+    public long seed() {
+        return seed;
+    }
+
+    /** Returns the configuration this simulation was built from. */
+    public SimConfig config() {
+        return cfg;
+    }
+
+    /** Returns the number of live bodies, including the star. */
+    public int bodyCount() {
+        if (tiles != null) return tiles.size();
+        return store != null ? store.size() : bodies.size();
+    }
+
+    /**
+     * Returns the queue other threads can push comets into, or null when {@code spawn_queue}
+     * is off. Comets pushed before a tick starts are added by that tick.
+     */
+    public SpawnQueue spawnQueue() {
+        return spawnQueue;
+    }
+
+    /** Returns the metrics being collected, or null when {@code metrics} is off. */
+    TickMetrics metrics() {
+        return metrics;
+    }
+
+    /** Returns how many ticks have been run so far. */
+    public long tickCount() {
+        return ticks;
+    }
+
+    // ----- Spawning -----
+    /**
+     * Appends a new comet to whichever storage is active.
+     */
+    private void addComet(int cx, int cy, int vx, int vy) {
+        if (recorder != null) recorder.spawn(cx, cy, vx, vy);
+        spawnedThisTick++;
+        if (tiles != null) {
+            tiles.add(BodyStore.COMET, cx, cy, vx, vy, cfg.bodySize, BodyStore.BLACK);
+        } else if (store != null) {
+            int i = store.add(BodyStore.COMET, cx, cy, vx, vy, cfg.bodySize, BodyStore.BLACK);
+            if (wheel != null) wheel.add(store, i, ticks + 1, cfg.worldW, cfg.worldH);
+        } else {
+            bodies.add(comet(cx, cy, vx, vy));
+        }
+    }
+
+    /**
+     * Returns a comet from the pool (or a new one) initialized with the given state.
+     */
+    private Body comet(int cx, int cy, int vx, int vy) {
+        Body b = bodyPool.poll();
+        if (b == null) b = new Body(Kind.COMET, cx, cy, vx, vy, cfg.bodySize, Color.BLACK);
+        else b.reset(Kind.COMET, cx, cy, vx, vy, cfg.bodySize, Color.BLACK);
+        b.mass = cfg.bodyMass;
+        return b;
+    }
+
+    /**
+     * Appends the first n comets of the given columns with one bulk operation on the active storage.
+     */
+    private void addBatch(int[] x, int[] y, int[] dx, int[] dy, int n) {
+        if (n == 0) return;
+        if (recorder != null) {
+            for (int i = 0; i < n; i++) recorder.spawn(x[i], y[i], dx[i], dy[i]);
+        }
+        spawnedThisTick += n;
+        if (tiles != null) {
+            for (int i = 0; i < n; i++) tiles.add(BodyStore.COMET, x[i], y[i], dx[i], dy[i], cfg.bodySize, BodyStore.BLACK);
+            return;
+        }
+        if (store != null) {
+            store.addAll(BodyStore.COMET, x, y, dx, dy, n, cfg.bodySize, BodyStore.BLACK);
+            if (wheel != null) {
+                for (int i = store.size - n; i < store.size; i++) wheel.add(store, i, ticks + 1, cfg.worldW, cfg.worldH);
+            }
+            return;
+        }
+        spawnBatch.ensureCapacity(n);
+        for (int i = 0; i < n; i++) spawnBatch.add(comet(x[i], y[i], dx[i], dy[i]));
+        bodies.addAll(spawnBatch);
+        spawnBatch.clear();
+    }
+
+    /**
+     * Returns a non-zero integer velocity uniformly sampled from  maxAbs, maxAbs.
+     *
+     */
+    private int randVelNZ(int maxAbs) {
+        int v;
+        do { v = rng.nextInt(maxAbs * 2 + 1) - maxAbs; } while (v == 0);
+        return v;
+    }
+
+    /**
+     * With probability genX, spawns a COMET at the top or bottom edge with velocity nudged inward.
+     *
+     */
+    private void maybeSpawnTopBottom() {
+        if (rng.nextDouble() >= cfg.genX) return;
+        boolean fromTop = rng.nextBoolean();
+        int cx = rng.nextInt(cfg.worldW);
+        int cy = fromTop ? -cfg.bodySize : cfg.worldH + cfg.bodySize;
+        int vx = randVelNZ(cfg.bodyVelMax);
+        int vy = randVelNZ(cfg.bodyVelMax);
+        if (fromTop && vy <= 0) vy = Math.abs(vy);
+        if (!fromTop && vy >= 0) vy = -Math.abs(vy);
+        addComet(cx, cy, vx, vy);
+    }
+
+    /**
+     * With probability genY, spawns a COMET at the left or right edge with velocity nudged inward.
+     */
+    private void maybeSpawnLeftRight() {
+        if (rng.nextDouble() >= cfg.genY) return;
+        boolean fromLeft = rng.nextBoolean();
+        int cx = fromLeft ? -cfg.bodySize : cfg.worldW + cfg.bodySize;
+        int cy = rng.nextInt(cfg.worldH);
+        int vx = randVelNZ(cfg.bodyVelMax);
+        int vy = randVelNZ(cfg.bodyVelMax);
+        if (fromLeft && vx <= 0) vx = Math.abs(vx);
+        if (!fromLeft && vx >= 0) vx = -Math.abs(vx);
+        addComet(cx, cy, vx, vy);
+    }
+
+    // ----- Tick -----
+    /**
+     * One tick: apply gravity (if on), step all bodies, resolve collisions (if on), maybe spawn
+     * new ones, remove off-screen and absorbed comets.
+     * Both sweeps are single passes, so a tick is O(n) for every list type.
+     */
+    public void tick() {
+        applyPendingConfig();
+        // cut the queue here, so this tick adds exactly what was pushed before it began
+        if (spawnQueue != null && replay == null) queued = spawnQueue.drain();
+        long t0 = clock();
+        if (parallel != null) {
+            tickParallel(t0);
+            return;
+        }
+        if (tiles != null) {
+            tiles.step();
+            long t1 = clock();
+            spawn();
+            long t2 = clock();
+            culledThisTick += tiles.handOff();
+            endTick(t0, t1, t2);
+            return;
+        }
+        if (wheel != null) {
+            long t1 = clock(); // nothing to step: positions are evaluated on demand
+            spawn();
+            long t2 = clock();
+            culledThisTick += wheel.expire(ticks + 1, store);
+            endTick(t0, t1, t2);
+            return;
+        }
+        if (kernel != null) {
+            int n = store.size();
+            kernel.stepAndMark(store, cfg.worldW, cfg.worldH);
+            long t1 = clock();
+            spawn();
+            long t2 = clock();
+            culledThisTick += store.cull(kernel, n, cfg.worldW, cfg.worldH);
+            endTick(t0, t1, t2);
+            return;
+        }
+        if (store != null) {
+            store.step();
+            long t1 = clock();
+            spawn();
+            long t2 = clock();
+            culledThisTick += store.cull(cfg.worldW, cfg.worldH);
+            endTick(t0, t1, t2);
+            return;
+        }
+
+        if (gravity != null) gravity.accelerate(bodies);
+        for (Body b : bodies) b.step();
+        if (collisions != null) collisions.resolve(bodies);
+        long t1 = clock();
+
+        spawn();
+        long t2 = clock();
+
+        bodies.removeIf(cullFilter);
+        endTick(t0, t1, t2);
+    }
+
+    /**
+     * Same phases as the sequential tick, but step and off-screen tests run on the
+     * fork/join pool. Spawning and the cull itself stay on this thread, so the outcome
+     * is identical for any thread count.
+     */
+    private void tickParallel(long t0) {
+        long t1, t2;
+        if (store != null) {
+            int n = store.size();
+            boolean[] m = parallel.stepAndMark(store, cfg.worldW, cfg.worldH);
+            t1 = clock();
+            spawn();
+            t2 = clock();
+            culledThisTick += store.cull(m, n, cfg.worldW, cfg.worldH);
+        } else {
+            if (gravity != null) gravity.accelerate(bodies);
+            marks = parallel.stepAndMark(bodies, cfg.worldW, cfg.worldH);
+            marked = bodies.size();
+            if (collisions != null) {
+                collisions.resolve(bodies);
+                marked = 0; // merges move and grow survivors, so test every body afresh
+            }
+            t1 = clock();
+            spawn();
+            t2 = clock();
+            cullCursor = 0;
+            bodies.removeIf(markedFilter);
+        }
+        endTick(t0, t1, t2);
+    }
+
+    /** Phase timestamp for metrics; skips the clock read when metrics are off. */
+    private long clock() {
+        return metrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Spawn phase: comets drained from the spawn queue this tick, then random edge spawns
+     * (one batch in {@code spawn = batch} mode); or the recorded ones when replaying a log.
+     */
+    private void spawn() {
+        if (replay != null) {
+            replay.spawns(ticks + 1, this::addComet);
+            return;
+        }
+        if (queued > 0) {
+            addBatch(spawnQueue.batchX, spawnQueue.batchY, spawnQueue.batchVx, spawnQueue.batchVy, queued);
+            queued = 0;
+        }
+        if (spawner != null) {
+            int n = spawner.draw(cfg);
+            addBatch(spawner.cx, spawner.cy, spawner.vx, spawner.vy, n);
+            return;
+        }
+        maybeSpawnTopBottom();
+        maybeSpawnLeftRight();
+    }
+
+    /**
+     * Closes out a tick: records its phase timings (step from t0, spawn from t1, cull from t2),
+     * writes its events to the log, or checks them against the log being replayed.
+     */
+    private void endTick(long t0, long t1, long t2) {
+        ticks++;
+        if (metrics != null) {
+            metrics.recordTick(t1 - t0, t2 - t1, System.nanoTime() - t2, bodyCount(),
+                spawnedThisTick, culledThisTick, bodies != null ? retiredOpSteps + bodies.opSteps() : 0);
+        }
+        try {
+            if (recorder != null) recorder.endTick(ticks, culledThisTick);
+            if (snapshots != null) writeSnapshot();
+            if (replay != null) {
+                int expected = replay.endTick(ticks);
+                if (expected != culledThisTick) {
+                    throw new IllegalStateException("Replay diverged at tick " + ticks + ": culled "
+                        + culledThisTick + ", log says " + expected);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        culledThisTick = 0;
+        spawnedThisTick = 0;
+    }
+
+    /**
+     * Appends every body's position after this tick to the snapshot log.
+     */
+    private void writeSnapshot() throws IOException {
+        snapshots.begin(ticks, bodyCount());
+        if (tiles != null) {
+            for (int t = 0; t < tiles.tileCount(); t++) {
+                BodyStore s = tiles.tile(t);
+                for (int i = 0; i < s.size; i++) snapshots.put(s.cx[i], s.cy[i]);
+            }
+        } else if (store != null) {
+            for (int i = 0; i < store.size; i++) snapshots.put(storeX(i), storeY(i));
+        } else {
+            for (Body b : bodies) snapshots.put(b.cx, b.cy);
+        }
+        snapshots.end();
+    }
+
+    /**
+     * removeIf predicate for the parallel tick. removeIf visits in list order, so the
+     * running cursor lines up with the mask; bodies spawned after marking are tested directly.
+     */
+    private boolean cullMarked(Body b) {
+        int i = cullCursor++;
+        boolean dead = i < marked ? marks[i] || b.dead : culled(b);
+        if (dead) {
+            bodyPool.release(b);
+            culledThisTick++;
+        }
+        return dead;
+    }
+
+    /**
+     * removeIf predicate for the sequential tick: culls like {@link #culled} and hands
+     * removed bodies back to the pool.
+     */
+    private boolean cullAndRecycle(Body b) {
+        if (!culled(b)) return false;
+        bodyPool.release(b);
+        culledThisTick++;
+        return true;
+    }
+
+    /**
+     * Returns true for comets that have left the world or been absorbed; the star is never culled.
+     */
+    private boolean culled(Body b) {
+        return b.dead || b.kind != Kind.STAR && b.offScreen(cfg.worldW, cfg.worldH);
+    }
+
+    /**
+     * The comet the window follows when {@code follow} is on, or null if there is none.
+     * It is held by slot map handle, not by reference: a culled Body goes back to the pool and
+     * is reused for a new comet, and a reference would silently jump to that one, while the
+     * handle stops resolving. A comet that is gone or absorbed is replaced by the newest one.
+     */
+    @SuppressWarnings("unchecked")
+    private Body followed() {
+        if (!(bodies instanceof MySlotMap)) return null; // a reload moved the bodies to another list
+        MySlotMap<Body> map = (MySlotMap<Body>) bodies;
+        Body b = map.getHandle(followed);
+        if (b != null && !b.dead) return b;
+        int last = map.size() - 1;
+        if (last < 0 || map.get(last).kind == Kind.STAR) return null;
+        followed = map.handleAt(last);
+        return map.get(last);
+    }
+
+    /** Current x of store body i; evaluated from its birth state when culling by wheel. */
+    private int storeX(int i) {
+        return wheel != null ? wheel.x(store, i, ticks) : store.cx[i];
+    }
+
+    /** Current y of store body i; evaluated from its birth state when culling by wheel. */
+    private int storeY(int i) {
+        return wheel != null ? wheel.y(store, i, ticks) : store.cy[i];
+    }
+
+    /**
+     * Runs the given number of ticks back to back, as fast as the CPU allows.
+     * Returns the elapsed wall-clock time in nanoseconds.
+     */
+    public long run(long n) {
+        long start = System.nanoTime();
+        for (long t = 0; t < n; t++) tick();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Copies what the renderer needs from every body into the frame, in window coordinates
+     * (shifted by the viewport's position in the world). When tiled, only tiles that can reach
+     * into the window are copied. Must be called on the thread that ticks; the frame can then
+     * be handed to another thread and read there.
+     */
+    void snapshot(Frame f) {
+        f.clear(ticks);
+        int ox = cfg.viewX, oy = cfg.viewY;
+        Body target = cfg.follow ? followed() : null;
+        if (target != null) {
+            ox = (int) Math.round(target.cx) - cfg.winW / 2;
+            oy = (int) Math.round(target.cy) - cfg.winH / 2;
+        }
+        if (tiles != null) {
+            tiles.collect(f, ox, oy, cfg.winW, cfg.winH);
+            return;
+        }
+        if (store != null) {
+            for (int i = 0; i < store.size; i++) {
+                f.add(storeX(i) - ox, storeY(i) - oy, store.radius[i], BodyStore.PALETTE[store.color[i]].getRGB());
+            }
+            return;
+        }
+        for (Body b : bodies) {
+            f.add((int) Math.round(b.cx) - ox, (int) Math.round(b.cy) - oy, b.radius, b.color.getRGB());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks {@link MySlotMap}'s stable handles under random churn against a reference map:
+ * every live handle must keep resolving to its element however the elements around it
+ * move, and every removed one must stay dead after its slot is reused.
+ *
+ * Usage: {@code java SlotMapCheck [n] [ops] [seed]}
+ */
+public final class SlotMapCheck {
+    private SlotMapCheck() {}
+
+    /**
+     * Runs ops random operations on a slot map kept at about n elements, mixing every way of
+     * adding and removing, and checks all live handles and the most recent stale ones after
+     * each round. Throws IllegalStateException at the first handle that resolves wrongly.
+     */
+    static void run(int n, int ops, long seed) {
+        Random rnd = new Random(seed);
+        MySlotMap<Integer> map = new MySlotMap<>();
+        Map<Long, Integer> live = new HashMap<>();
+        long[] stale = new long[4096];
+        int staleCount = 0, next = 0;
+        long staleChecks = 0;
+        for (int op = 0; op < ops; op++) {
+            int choice = map.size() < n ? 0 : rnd.nextInt(6);
+            Integer e = next++;
+            switch (choice) {
+                case 0: // append
+                    live.put(map.insert(e), e);
+                    break;
+                case 1: { // insert in the middle; the elements after it shift right
+                    int i = rnd.nextInt(map.size() + 1);
+                    map.add(i, e);
+                    live.put(map.handleAt(i), e);
+                    break;
+                }
+                default: { // remove by handle, by index, through the iterator, or by filter
+                    int i = rnd.nextInt(map.size());
+                    long h = map.handleAt(i);
+                    Integer gone = live.remove(h);
+                    if (choice == 2) map.removeHandle(h);
+                    else if (choice == 3) map.remove(i);
+                    else if (choice == 4) {
+                        Iterator<Integer> it = map.iterator();
+                        for (int k = 0; k <= i; k++) it.next();
+                        it.remove();
+                    } else map.removeIf(x -> x.equals(gone));
+                    if (map.removeHandle(h) != null) throw new IllegalStateException("Handle " + h + " removed twice");
+                    stale[staleCount++ % stale.length] = h;
+                }
+            }
+            if (op % 1024 != 0 && op != ops - 1) continue;
+            if (live.size() != map.size()) {
+                throw new IllegalStateException("Size " + map.size() + " after op " + op + ", expected " + live.size());
+            }
+            for (Map.Entry<Long, Integer> le : live.entrySet()) {
+                if (!le.getValue().equals(map.getHandle(le.getKey()))) {
+                    throw new IllegalStateException("Live handle " + le.getKey() + " lost its element after op " + op);
+                }
+            }
+            for (int k = 0; k < Math.min(staleCount, stale.length); k++, staleChecks++) {
+                if (map.contains(stale[k]) || map.getHandle(stale[k]) != null) {
+                    throw new IllegalStateException("Stale handle " + stale[k] + " resolves after op " + op);
+                }
+            }
+        }
+        System.out.printf("handles: %d ops at n=%d ok, %d live and %d stale handle checks%n",
+            ops, n, live.size(), staleChecks);
+    }
+
+    public static void main(String[] args) {
+        run(args.length > 0 ? Integer.parseInt(args[0].trim()) : 1_000,
+            args.length > 1 ? Integer.parseInt(args[1].trim()) : 200_000,
+            args.length > 2 ? Long.parseLong(args[2].trim()) : 42);
+    }
+}
@@ -0,0 +1,238 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Every body's position after every tick, streamed to memory-mapped files for offline
+ * trajectory analysis.
+ *
+ * A directory holds rolling segment files {@code seg-00000.bin, seg-00001.bin, ...} and one
+ * {@code index.bin}. A segment starts with magic "MMSN", int version, long bytes used, then
+ * one record per tick: long tick, int body count, and a float x, y pair per body. The index
+ * starts with magic "MMSI", int version, long ticks recorded, then one long per tick:
+ * segment number in the high 32 bits, record offset in the low 32. Segments are mapped at
+ * full size up front, so writing a tick is plain stores into mapped memory and allocates
+ * nothing; a new segment is opened only when a record does not fit in the current one.
+ */
+final class SnapshotLog {
+    private static final int SEG_MAGIC = 0x4D4D534E;   // "MMSN"
+    private static final int INDEX_MAGIC = 0x4D4D5349; // "MMSI"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    /** Index entries mapped at first; the index is remapped at double the size when full. */
+    private static final int INDEX_CHUNK = 1 << 16;
+
+    private SnapshotLog() {}
+
+    static Path segmentPath(Path dir, int seg) {
+        return dir.resolve(String.format("seg-%05d.bin", seg));
+    }
+
+    static Path indexPath(Path dir) {
+        return dir.resolve("index.bin");
+    }
+
+    /**
+     * Appends one record per tick. Usage per tick: {@code begin}, one {@code put} per body,
+     * {@code end}.
+     */
+    static final class Writer implements Closeable {
+        private final Path dir;
+        private final long segmentBytes;
+        private FileChannel segChannel, indexChannel;
+        private MappedByteBuffer seg, index;
+        /** Float view over the whole current segment, for the bulk copy of a record's positions. */
+        private FloatBuffer segFloats;
+        /** Positions of the tick being written, staged here and copied in one bulk put. */
+        private float[] xy = new float[1024];
+        private int segNo = -1;
+        private long ticks;
+        /** Start of the record being written, and where its body count goes. */
+        private int recordStart;
+        private int count;
+
+        Writer(String dir, int segmentMb) throws IOException {
+            this.dir = Paths.get(dir);
+            this.segmentBytes = Math.max(1, segmentMb) * (1L << 20);
+            File d = this.dir.toFile();
+            if (!d.isDirectory() && !d.mkdirs()) throw new IOException("Cannot create " + dir);
+            indexChannel = FileChannel.open(indexPath(this.dir), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            mapIndex(INDEX_CHUNK);
+            index.putInt(0, INDEX_MAGIC);
+            index.putInt(4, VERSION);
+            index.putLong(8, 0);
+            openSegment(segmentBytes);
+        }
+
+        /** Maps the index with room for the given number of entries. */
+        private void mapIndex(long entries) throws IOException {
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + entries * 8);
+            index.order(ByteOrder.nativeOrder());
+        }
+
+        /** Seals the current segment and maps the next one with at least the given size. */
+        private void openSegment(long bytes) throws IOException {
+            if (segChannel != null) {
+                seg.putLong(8, seg.position());
+                segChannel.close();
+            }
+            segNo++;
+            segChannel = FileChannel.open(segmentPath(dir, segNo), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            seg = segChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(Integer.MAX_VALUE, bytes));
+            seg.order(ByteOrder.nativeOrder());
+            segFloats = seg.asFloatBuffer();
+            seg.putInt(SEG_MAGIC).putInt(VERSION).putLong(HEADER);
+        }
+
+        /**
+         * Starts the record for a tick. bodies is the exact number of put calls that follow,
+         * so the record is known to fit before anything is written.
+         */
+        void begin(long tick, int bodies) throws IOException {
+            long need = 12 + 8L * bodies;
+            if (seg.remaining() < need) openSegment(Math.max(segmentBytes, HEADER + need));
+            recordStart = seg.position();
+            seg.putLong(tick).putInt(bodies);
+            if (2 * bodies > xy.length) xy = new float[Math.max(2 * bodies, xy.length * 2)];
+            count = 0;
+        }
+
+        /** Writes one body's position. */
+        void put(double x, double y) {
+            xy[2 * count] = (float) x;
+            xy[2 * count + 1] = (float) y;
+            count++;
+        }
+
+        /** Finishes the tick's record and adds it to the index. */
+        void end() throws IOException {
+            if (count != seg.getInt(recordStart + 8)) {
+                throw new IllegalStateException("begin announced " + seg.getInt(recordStart + 8)
+                    + " bodies, got " + count);
+            }
+            int at = seg.position();
+            segFloats.put(at >> 2, xy, 0, 2 * count);
+            seg.position(at + 8 * count);
+            if (HEADER + (ticks + 1) * 8 > index.capacity()) mapIndex(Math.max(ticks * 2, INDEX_CHUNK));
+            index.putLong((int) (HEADER + ticks * 8), (long) segNo << 32 | recordStart);
+            ticks++;
+            index.putLong(8, ticks);
+            seg.putLong(8, seg.position());
+        }
+
+        /** Number of ticks recorded so far. */
+        long ticks() {
+            return ticks;
+        }
+
+        @Override
+        public void close() throws IOException {
+            seg.force();
+            index.force();
+            segChannel.close();
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Random access to a recorded run by tick index (0 for the first tick recorded).
+     * Segments are mapped read-only on first use.
+     */
+    static final class Reader implements Closeable {
+        private final Path dir;
+        private final FileChannel indexChannel;
+        private final MappedByteBuffer index;
+        private final long ticks;
+        private MappedByteBuffer[] segs = new MappedByteBuffer[4];
+
+        Reader(String dir) throws IOException {
+            this.dir = Paths.get(dir);
+            indexChannel = FileChannel.open(indexPath(this.dir), StandardOpenOption.READ);
+            index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+            index.order(ByteOrder.nativeOrder());
+            if (index.getInt(0) != INDEX_MAGIC) throw new IOException(dir + " is not a MassiveMotion snapshot log");
+            int v = index.getInt(4);
+            if (v != VERSION) throw new IOException("Unsupported snapshot log version " + v);
+            ticks = index.getLong(8);
+        }
+
+        /** Number of ticks recorded. */
+        long ticks() {
+            return ticks;
+        }
+
+        /** Returns the mapped segment holding a tick's record, positioned at the record. */
+        private MappedByteBuffer record(long i) throws IOException {
+            if (i < 0 || i >= ticks) {
+                throw new IndexOutOfBoundsException("tick index " + i + " out of bounds (ticks " + ticks + ")");
+            }
+            long e = index.getLong((int) (HEADER + i * 8));
+            int s = (int) (e >>> 32);
+            if (s >= segs.length) segs = Arrays.copyOf(segs, Math.max(s + 1, segs.length * 2));
+            if (segs[s] == null) {
+                try (FileChannel ch = FileChannel.open(segmentPath(dir, s), StandardOpenOption.READ)) {
+                    segs[s] = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                    segs[s].order(ByteOrder.nativeOrder());
+                }
+            }
+            segs[s].position((int) e);
+            return segs[s];
+        }
+
+        /** Simulation tick number of the i-th record. */
+        long tick(long i) throws IOException {
+            return record(i).getLong();
+        }
+
+        /** Number of bodies in the i-th record. */
+        int bodyCount(long i) throws IOException {
+            MappedByteBuffer b = record(i);
+            return b.getInt(b.position() + 8);
+        }
+
+        /**
+         * Copies the i-th record's positions into xy as x0, y0, x1, y1, ... and returns the
+         * body count. xy must hold at least 2 * bodyCount(i) floats.
+         */
+        int read(long i, float[] xy) throws IOException {
+            MappedByteBuffer b = record(i);
+            b.getLong();
+            int n = b.getInt();
+            b.asFloatBuffer().get(xy, 0, 2 * n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Prints one recorded tick.
+     * Usage: {@code java SnapshotLog <dir> <tick index>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: SnapshotLog <dir> <tick index>");
+            System.exit(2);
+        }
+        try (Reader r = new Reader(args[0])) {
+            long i = Long.parseLong(args[1].trim());
+            float[] xy = new float[2 * r.bodyCount(i)];
+            int n = r.read(i, xy);
+            System.out.println("tick=" + r.tick(i) + " bodies=" + n + " of " + r.ticks() + " recorded ticks");
+            for (int k = 0; k < n; k++) System.out.println(xy[2 * k] + "," + xy[2 * k + 1]);
+        }
+    }
+}
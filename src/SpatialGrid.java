@@ -0,0 +1,61 @@
+import java.util.Arrays;
+
+/**
+ * Uniform spatial hash over points. Space is cut into square cells of a fixed size and
+ * each cell is hashed into a bucket; each bucket is an intrusive singly linked chain of
+ * point indices held in flat int arrays, so a rebuild is O(n) and allocates nothing once
+ * the arrays are large enough.
+ *
+ * Distinct cells may share a bucket, so callers must still test actual distances.
+ */
+final class SpatialGrid {
+    private static final int NONE = -1;
+
+    private double cell = 1;
+    /** First point index in each bucket, or NONE. Length is a power of two. */
+    private int[] head = new int[16];
+    /** Next point index in the same bucket, or NONE. */
+    private int[] next = new int[16];
+
+    /** Cell size used by the last build. */
+    double cellSize() {
+        return cell;
+    }
+
+    /** Column or row of the cell containing coordinate v. */
+    int cellOf(double v) {
+        return (int) Math.floor(v / cell);
+    }
+
+    /** Bucket index for cell (gx, gy). */
+    int bucket(int gx, int gy) {
+        int hsh = gx * 73856093 ^ gy * 19349663;
+        return (hsh ^ (hsh >>> 16)) & (head.length - 1);
+    }
+
+    /**
+     * Rebuilds the grid over points [0, n).
+     */
+    void build(double[] x, double[] y, int n, double cellSize) {
+        cell = Math.max(cellSize, 1);
+        int buckets = Integer.highestOneBit(Math.max(16, n * 2 - 1)) << 1;
+        if (head.length != buckets) head = new int[buckets];
+        Arrays.fill(head, NONE);
+        if (next.length < n) next = new int[Math.max(n, next.length * 2)];
+        for (int i = 0; i < n; i++) {
+            int b = bucket(cellOf(x[i]), cellOf(y[i]));
+            next[i] = head[b];
+            head[b] = i;
+        }
+    }
+
+    /** First point in a bucket, or -1. */
+    int first(int bucket) {
+        return head[bucket];
+    }
+
+    /** Point after i in its bucket, or -1. */
+    int next(int i) {
+        return next[i];
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded lock-free queue of comets to spawn, for {@code spawn_queue = N}: any number of
+ * producer threads push, and the tick thread drains everything queued in one batch per tick.
+ *
+ * A ring of capacity slots (a power of two) holds each comet's position and velocity in
+ * primitive columns, so a push allocates nothing. Every slot has a sequence number that says
+ * whose turn it is: a producer claims the next position with one CAS on the tail, writes the
+ * slot, then publishes it by advancing the slot's sequence; the consumer only reads slots
+ * whose sequence shows they are published, and hands each back by advancing it a lap. Nobody
+ * ever waits on a lock. When the ring is full, {@link #offer} fails at once and the rejection
+ * is counted, which is the backpressure signal that producers are outrunning the ticks.
+ */
+public final class SpawnQueue {
+    private final int mask;
+    private final int[] cx, cy, vx, vy;
+    /** Per slot: position + 1 once published at that position, position + capacity once drained. */
+    private final AtomicLongArray sequence;
+    /** Next position producers will claim; also the number of comets ever accepted. */
+    private final AtomicLong tail = new AtomicLong();
+    /** Next position to drain; written only by the consumer. */
+    private volatile long head;
+    private final LongAdder rejected = new LongAdder();
+    /** Most comets taken in a single drain; written only by the consumer. */
+    private volatile int highWater;
+    /** The last drain's comets, first {@link #drain} entries; consumer only. */
+    int[] batchX = new int[64], batchY = new int[64], batchVx = new int[64], batchVy = new int[64];
+
+    /** Creates a queue holding at least the given number of comets (rounded up to a power of two). */
+    public SpawnQueue(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = cap - 1;
+        cx = new int[cap];
+        cy = new int[cap];
+        vx = new int[cap];
+        vy = new int[cap];
+        sequence = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) sequence.set(i, i);
+    }
+
+    /**
+     * Queues a comet for the next tick. Never blocks: returns false, and counts a rejection,
+     * if the queue is full. Safe to call from any thread.
+     */
+    public boolean offer(int x, int y, int dx, int dy) {
+        while (true) {
+            long pos = tail.get();
+            int slot = (int) pos & mask;
+            long seq = sequence.getAcquire(slot);
+            if (seq == pos) {
+                if (!tail.compareAndSet(pos, pos + 1)) continue; // another producer got it
+                cx[slot] = x; cy[slot] = y;
+                vx[slot] = dx; vy[slot] = dy;
+                sequence.setRelease(slot, pos + 1);
+                return true;
+            }
+            if (seq < pos) {
+                // the consumer has not drained this slot from the previous lap yet
+                rejected.increment();
+                return false;
+            }
+            // seq > pos: the tail moved on since we read it; try again
+        }
+    }
+
+    /**
+     * Moves every published comet, in queue order, into the batch arrays and returns how many
+     * there are. A comet whose producer has claimed a slot but not finished writing it stops
+     * the drain; it and everything after it wait for the next one. Consumer (tick) thread only.
+     */
+    int drain() {
+        long h = head;
+        int available = (int) Math.min(tail.get() - h, mask + 1);
+        if (available > batchX.length) {
+            int cap = Math.max(available, batchX.length * 2);
+            batchX = new int[cap];
+            batchY = new int[cap];
+            batchVx = new int[cap];
+            batchVy = new int[cap];
+        }
+        int n = 0;
+        while (n < available) {
+            long pos = h + n;
+            int slot = (int) pos & mask;
+            if (sequence.getAcquire(slot) != pos + 1) break;
+            batchX[n] = cx[slot]; batchY[n] = cy[slot];
+            batchVx[n] = vx[slot]; batchVy[n] = vy[slot];
+            sequence.setRelease(slot, pos + mask + 1);
+            n++;
+        }
+        head = h + n;
+        if (n > highWater) highWater = n;
+        return n;
+    }
+
+    /** Capacity of the ring. */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Comets queued but not yet drained; approximate while producers are active. */
+    public int depth() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /** Comets accepted by {@link #offer} so far. */
+    public long accepted() {
+        return tail.get();
+    }
+
+    /** Offers turned away because the queue was full. */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /** Comets drained into the simulation so far. */
+    public long drained() {
+        return head;
+    }
+
+    /** Most comets drained by a single tick. */
+    public int highWater() {
+        return highWater;
+    }
+}
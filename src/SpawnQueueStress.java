@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stress-tests {@link SpawnQueue}: producer threads offer comets as fast as they can while
+ * a simulation with no random spawns ticks. Checks that every accepted comet was drained or
+ * is still queued, that the producers' own counts match the queue's, that the simulation
+ * spawned exactly what was drained, and that the recorded event log replays the run.
+ * A tick can spawn up to capacity comets, so the population, and the run time, grow with it.
+ *
+ * Usage: {@code java SpawnQueueStress [producers] [capacity] [ticks]}
+ */
+public final class SpawnQueueStress {
+    private SpawnQueueStress() {}
+
+    /**
+     * Runs the stress test described in the class comment and prints its counts.
+     * Throws IllegalStateException if any check fails.
+     */
+    static void run(int producers, int capacity, int ticks) {
+        Path log;
+        try {
+            log = Files.createTempFile("spawn-queue", ".mmev");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Properties p = new Properties();
+        p.setProperty("seed", "1");
+        p.setProperty("gen_x", "0");
+        p.setProperty("gen_y", "0");
+        p.setProperty("spawn_queue", Integer.toString(capacity));
+        p.setProperty("metrics", "true");
+        p.setProperty("event_log", log.toString());
+        Simulation sim = new Simulation(SimConfig.fromProperties(p));
+        SpawnQueue q = sim.spawnQueue();
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder accepted = new LongAdder(), rejected = new LongAdder();
+        Thread[] threads = new Thread[producers];
+        for (int t = 0; t < producers; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; !stop.get(); i++) {
+                    if (q.offer(0, 50 + (i * 7 + id) % 600, 1 + id % 4, i % 5 - 2)) {
+                        accepted.increment();
+                    } else {
+                        rejected.increment();
+                        Thread.yield(); // back off while the tick thread catches up
+                    }
+                }
+            }, "producer-" + t);
+            threads[t].start();
+        }
+        long start = System.nanoTime();
+        for (int t = 0; t < ticks; t++) sim.tick();
+        double secs = (System.nanoTime() - start) / 1e9;
+        stop.set(true);
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for producers", e);
+            }
+        }
+        // producers are stopped, so the counters are exact now
+        long depth = q.depth();
+        if (q.accepted() != q.drained() + depth) {
+            throw new IllegalStateException("accepted " + q.accepted() + " != drained " + q.drained() + " + depth " + depth);
+        }
+        if (accepted.sum() != q.accepted() || rejected.sum() != q.rejected()) {
+            throw new IllegalStateException("Producers counted " + accepted.sum() + "/" + rejected.sum()
+                + " accepted/rejected, the queue " + q.accepted() + "/" + q.rejected());
+        }
+        sim.tick(); // the last drain: everything still queued spawns on this tick
+        if (q.depth() != 0 || q.drained() != q.accepted() || sim.metrics().getSpawned() != q.drained()) {
+            throw new IllegalStateException("Spawned " + sim.metrics().getSpawned() + ", drained " + q.drained()
+                + ", accepted " + q.accepted());
+        }
+        int bodies = sim.bodyCount();
+        long ran = sim.tickCount();
+        sim.close();
+
+        p.remove("event_log");
+        p.setProperty("metrics", "false");
+        Simulation replay = new Simulation(SimConfig.fromProperties(p));
+        try (EventLog.Reader reader = new EventLog.Reader(log.toString())) {
+            replay.replayFrom(reader);
+            while (replay.tickCount() < ran) replay.tick();
+            Files.delete(log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            replay.close();
+        }
+        if (replay.bodyCount() != bodies) {
+            throw new IllegalStateException("Replay ended with " + replay.bodyCount() + " bodies, the run with " + bodies);
+        }
+        System.out.printf("queue: %d producers, capacity %d, %d ticks at %.0f ticks/s: accepted %d, rejected %d,"
+            + " drained %d (high water %d per tick), replay ok%n", producers, q.capacity(), ran, ticks / secs,
+            q.accepted(), q.rejected(), q.drained(), q.highWater());
+    }
+
+    public static void main(String[] args) {
+        run(args.length > 0 ? Integer.parseInt(args[0].trim()) : 4,
+            args.length > 1 ? Integer.parseInt(args[1].trim()) : 256,
+            args.length > 2 ? Integer.parseInt(args[2].trim()) : 3000);
+    }
+}
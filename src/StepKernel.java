@@ -0,0 +1,61 @@
+/**
+ * Block step + off-screen kernel over a {@link BodyStore}'s position and velocity columns,
+ * for {@code kernel = block}.
+ *
+ * Bodies are processed BLOCK at a time, so a block's columns are still in L1 when the test
+ * reads back the positions the step just wrote. The step and the off-screen test are
+ * straight-line int arithmetic with no branches, the test folding its four edge comparisons
+ * into one sign bit, so HotSpot's superword pass compiles both loops to SIMD instructions.
+ * The test writes a 0/1 lane mask and ORs it into one flag per block, which lets the cull
+ * skip every block with nothing to remove.
+ */
+final class StepKernel {
+    /** Bodies per block; long enough that the vector loops' setup is amortized. */
+    static final int BLOCK = 1024;
+
+    /** 1 where the body lies entirely outside the area, else 0; the star is not masked out here. */
+    int[] mask = new int[BLOCK];
+    /** Per block: true if any of its mask entries is 1. */
+    boolean[] hit = new boolean[1];
+
+    /**
+     * Steps every body in the store and fills {@link #mask} and {@link #hit}. Entries for
+     * [0, n) are valid, where n is the store's size on entry.
+     */
+    void stepAndMark(BodyStore s, int w, int h) {
+        int n = s.size;
+        if (mask.length < n) mask = new int[Math.max(n, mask.length * 2)];
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        if (hit.length < blocks) hit = new boolean[Math.max(blocks, hit.length * 2)];
+        for (int b = 0; b < blocks; b++) {
+            int from = b * BLOCK, to = Math.min(from + BLOCK, n);
+            step(s.cx, s.cy, s.vx, s.vy, from, to);
+            hit[b] = mark(s.cx, s.cy, s.radius, mask, from, to, w, h) != 0;
+        }
+    }
+
+    /** x += vx, y += vy over [from, to). */
+    static void step(int[] x, int[] y, int[] vx, int[] vy, int from, int to) {
+        for (int i = from; i < to; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    }
+
+    /**
+     * Writes 1 into out[i] when the disc at i lies entirely outside the w x h area, else 0,
+     * and returns the OR of what it wrote. Each edge test is a value that is negative exactly
+     * when the disc is past that edge, so OR-ing the four and taking the sign bit gives the
+     * same answer as {@link BodyStore#offScreen} without a branch.
+     */
+    static int mark(int[] x, int[] y, int[] r, int[] out, int from, int to, int w, int h) {
+        int any = 0;
+        for (int i = from; i < to; i++) {
+            int xi = x[i], yi = y[i], ri = r[i];
+            int off = ((xi + ri) | (w + ri - xi) | (yi + ri) | (h + ri - yi)) >>> 31;
+            out[i] = off;
+            any |= off;
+        }
+        return any;
+    }
+}
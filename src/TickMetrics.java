@@ -0,0 +1,185 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Per-tick instrumentation: phase timing histograms (step, spawn, cull, repaint), live body
+ * count, spawn/cull totals, and the list's node hop / element shift counter.
+ *
+ * Written by the tick thread (repaint by the painting thread) and readable at any time
+ * through JMX under {@code MassiveMotion:type=TickMetrics}, and optionally dumped as one
+ * CSV row per interval with per-interval rates and percentiles.
+ */
+public final class TickMetrics implements TickMetricsMXBean {
+    final LatencyHistogram step = new LatencyHistogram();
+    final LatencyHistogram spawn = new LatencyHistogram();
+    final LatencyHistogram cull = new LatencyHistogram();
+    final LatencyHistogram repaint = new LatencyHistogram();
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong spawned = new AtomicLong();
+    private final AtomicLong culled = new AtomicLong();
+    private final AtomicLong listOpSteps = new AtomicLong();
+    private volatile int bodyCount;
+    private volatile String listType;
+    /** Null when {@code spawn_queue} is off; its counters then read as 0. */
+    private volatile SpawnQueue spawnQueue;
+
+    private ScheduledExecutorService csvDumper;
+    private PrintWriter csv;
+    private CsvRow csvRow;
+
+    TickMetrics(String listType) {
+        this.listType = listType;
+    }
+
+    /**
+     * Records one finished tick. Called on the tick thread.
+     */
+    void recordTick(long stepNanos, long spawnNanos, long cullNanos,
+                    int bodies, int spawns, int culls, long opSteps) {
+        step.record(stepNanos);
+        spawn.record(spawnNanos);
+        cull.record(cullNanos);
+        bodyCount = bodies;
+        spawned.addAndGet(spawns);
+        culled.addAndGet(culls);
+        listOpSteps.set(opSteps);
+        ticks.incrementAndGet();
+    }
+
+    /** Notes that the simulation moved its bodies to another list type. */
+    void listType(String type) {
+        listType = type;
+    }
+
+    /** Reports the given queue's backpressure counters alongside the tick metrics. */
+    void spawnQueue(SpawnQueue q) {
+        spawnQueue = q;
+    }
+
+    /** Records one painted frame. */
+    void recordRepaint(long nanos) {
+        repaint.record(nanos);
+    }
+
+    /**
+     * Registers this object with the platform MBean server. Failures are reported and ignored.
+     */
+    void registerJmx() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("MassiveMotion:type=TickMetrics");
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts appending a CSV row to the given file every intervalMs milliseconds.
+     */
+    void startCsv(String path, long intervalMs) throws IOException {
+        csv = new PrintWriter(new FileWriter(path, false));
+        csv.println("time_ms,list,ticks,bodies,ticks_per_s,spawns_per_s,culls_per_s,list_op_steps_per_tick,"
+            + "step_p50_ns,step_p99_ns,spawn_p50_ns,spawn_p99_ns,cull_p50_ns,cull_p99_ns,repaint_p50_ns,repaint_p99_ns,"
+            + "queue_depth,queue_drained_per_s,queue_rejected_per_s");
+        csv.flush();
+        csvDumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-csv");
+            t.setDaemon(true);
+            return t;
+        });
+        csvRow = new CsvRow();
+        csvDumper.scheduleAtFixedRate(csvRow, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops the CSV dumper, writing a final row. */
+    void close() {
+        if (csvDumper == null) return;
+        csvDumper.shutdown();
+        try {
+            csvDumper.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        csvRow.run();
+        csv.close();
+    }
+
+    /**
+     * Writes one CSV row covering the time since the previous row.
+     */
+    private final class CsvRow implements Runnable {
+        private final long start = System.nanoTime();
+        private long lastNanos = start, lastTicks, lastSpawned, lastCulled, lastSteps, lastDrained, lastRejected;
+        private final LatencyHistogram[] hists = { step, spawn, cull, repaint };
+        private final long[][] prev = new long[4][], cur = new long[4][], diff = new long[4][];
+
+        CsvRow() {
+            for (int i = 0; i < 4; i++) {
+                prev[i] = LatencyHistogram.newCounts();
+                cur[i] = LatencyHistogram.newCounts();
+                diff[i] = LatencyHistogram.newCounts();
+            }
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            double secs = Math.max((now - lastNanos) / 1e9, 1e-9);
+            long t = ticks.get(), s = spawned.get(), c = culled.get(), o = listOpSteps.get();
+            long dt = t - lastTicks;
+            StringBuilder row = new StringBuilder();
+            row.append((now - start) / 1_000_000).append(',').append(listType).append(',')
+               .append(t).append(',').append(bodyCount).append(',')
+               .append(String.format("%.1f,%.1f,%.1f,%.1f", dt / secs, (s - lastSpawned) / secs,
+                   (c - lastCulled) / secs, dt == 0 ? 0.0 : (double) (o - lastSteps) / dt));
+            for (int i = 0; i < 4; i++) {
+                hists[i].copyCounts(cur[i]);
+                for (int k = 0; k < cur[i].length; k++) diff[i][k] = cur[i][k] - prev[i][k];
+                row.append(',').append(LatencyHistogram.percentile(diff[i], 0.50))
+                   .append(',').append(LatencyHistogram.percentile(diff[i], 0.99));
+                long[] swap = prev[i]; prev[i] = cur[i]; cur[i] = swap;
+            }
+            long qd = getQueueDrained(), qr = getQueueRejected();
+            row.append(',').append(getQueueDepth())
+               .append(String.format(",%.1f,%.1f", (qd - lastDrained) / secs, (qr - lastRejected) / secs));
+            csv.println(row);
+            csv.flush();
+            lastNanos = now; lastTicks = t; lastSpawned = s; lastCulled = c; lastSteps = o;
+            lastDrained = qd; lastRejected = qr;
+        }
+    }
+
+    // ----- JMX -----
+    @Override public long getTicks() { return ticks.get(); }
+    @Override public int getBodyCount() { return bodyCount; }
+    @Override public long getSpawned() { return spawned.get(); }
+    @Override public long getCulled() { return culled.get(); }
+    @Override public String getListType() { return listType; }
+    @Override public long getListOpSteps() { return listOpSteps.get(); }
+    @Override public long getStepP50Nanos() { return step.percentile(0.50); }
+    @Override public long getStepP99Nanos() { return step.percentile(0.99); }
+    @Override public long getSpawnP50Nanos() { return spawn.percentile(0.50); }
+    @Override public long getSpawnP99Nanos() { return spawn.percentile(0.99); }
+    @Override public long getCullP50Nanos() { return cull.percentile(0.50); }
+    @Override public long getCullP99Nanos() { return cull.percentile(0.99); }
+    @Override public long getRepaintP50Nanos() { return repaint.percentile(0.50); }
+    @Override public long getRepaintP99Nanos() { return repaint.percentile(0.99); }
+    @Override public int getQueueCapacity() { SpawnQueue q = spawnQueue; return q == null ? 0 : q.capacity(); }
+    @Override public int getQueueDepth() { SpawnQueue q = spawnQueue; return q == null ? 0 : q.depth(); }
+    @Override public long getQueueAccepted() { SpawnQueue q = spawnQueue; return q == null ? 0 : q.accepted(); }
+    @Override public long getQueueRejected() { SpawnQueue q = spawnQueue; return q == null ? 0 : q.rejected(); }
+    @Override public long getQueueDrained() { SpawnQueue q = spawnQueue; return q == null ? 0 : q.drained(); }
+    @Override public int getQueueHighWater() { SpawnQueue q = spawnQueue; return q == null ? 0 : q.highWater(); }
+}
@@ -0,0 +1,31 @@
+/**
+ * JMX view of {@link TickMetrics}. Durations are in nanoseconds and cover the whole run.
+ */
+public interface TickMetricsMXBean {
+    long getTicks();
+    int getBodyCount();
+    long getSpawned();
+    long getCulled();
+    String getListType();
+    /** Node hops (linked lists) or element shifts (array list) by indexed get/add/remove. */
+    long getListOpSteps();
+
+    long getStepP50Nanos();
+    long getStepP99Nanos();
+    long getSpawnP50Nanos();
+    long getSpawnP99Nanos();
+    long getCullP50Nanos();
+    long getCullP99Nanos();
+    long getRepaintP50Nanos();
+    long getRepaintP99Nanos();
+
+    /** Spawn queue ({@code spawn_queue}) counters; all 0 when it is off. */
+    int getQueueCapacity();
+    int getQueueDepth();
+    long getQueueAccepted();
+    /** Offers turned away because the queue was full: producers outrunning the ticks. */
+    long getQueueRejected();
+    long getQueueDrained();
+    /** Most comets drained by a single tick. */
+    int getQueueHighWater();
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The world split into square tiles of {@code tile_size} pixels, each owning its bodies in
+ * its own {@link BodyStore}, for {@code tile_size > 0}.
+ *
+ * A tick steps every tile independently (in parallel when {@code threads > 1}), and each
+ * tile lists the bodies that crossed its border or left the world. Crossers are then handed
+ * off to their new tile through a transit buffer, which also holds the tick's spawns, so the
+ * parallel phase never writes outside its own tile and the result does not depend on
+ * scheduling. A body belongs to the tile under its center, clamped
+ * to the world, so a body can overhang its tile by at most its radius; that bound is what
+ * lets a viewport visit only the tiles near it.
+ */
+final class TiledWorld {
+    /** Destination of a body that has left the world. */
+    private static final int CULL = -1;
+    /** Populations at or below this are stepped on the caller, as in ParallelTick. */
+    private static final int GRAIN = ParallelTick.GRAIN;
+
+    private final int tileSize, cols, rows, worldW, worldH;
+    private final BodyStore[] tiles;
+    /**
+     * Per tile: store indexes of the bodies that left it in the last step, ascending, with the
+     * tile each is bound for (or CULL), and how many there are. Reused across ticks.
+     */
+    private final int[][] leaving, leavingTo;
+    private final int[] leavers;
+    /** Bodies moving between tiles this tick, and the tile each is bound for. */
+    private final BodyStore transit = new BodyStore(64);
+    private int[] transitDest = new int[64];
+    /** Null when stepping sequentially. */
+    private final ForkJoinPool pool;
+    /** Largest radius ever added: how far a body can overhang its tile. */
+    private int maxRadius;
+    /** Bodies in all tiles plus the transit buffer. */
+    private int size;
+
+    TiledWorld(int worldW, int worldH, int tileSize, int capacity, int threads) {
+        this.worldW = worldW;
+        this.worldH = worldH;
+        this.tileSize = tileSize;
+        this.cols = (worldW + tileSize - 1) / tileSize;
+        this.rows = (worldH + tileSize - 1) / tileSize;
+        tiles = new BodyStore[cols * rows];
+        leaving = new int[tiles.length][16];
+        leavingTo = new int[tiles.length][16];
+        leavers = new int[tiles.length];
+        // the initial capacity is shared out, so a uniform population does not regrow at first
+        int perTile = Math.max(16, capacity / tiles.length);
+        for (int t = 0; t < tiles.length; t++) tiles[t] = new BodyStore(perTile);
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /** Number of bodies, including ones added since the last tick. */
+    int size() {
+        return size;
+    }
+
+    /** Number of tiles. */
+    int tileCount() {
+        return tiles.length;
+    }
+
+    /** Stops the worker threads, if any. */
+    void shutdown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    /** Index of the tile under (x, y), clamped to the world's edge tiles. */
+    private int tileOf(int x, int y) {
+        int c = Math.min(Math.max(x, 0) / tileSize, cols - 1);
+        int r = Math.min(Math.max(y, 0) / tileSize, rows - 1);
+        return r * cols + c;
+    }
+
+    // ----- Adding -----
+    /**
+     * Queues a body for its tile; it is placed by the next {@link #handOff}.
+     */
+    void add(byte k, int x, int y, int dx, int dy, int r, byte c) {
+        toTransit(k, x, y, dx, dy, r, c, tileOf(x, y));
+        if (r > maxRadius) maxRadius = r;
+        size++;
+    }
+
+    private void toTransit(byte k, int x, int y, int dx, int dy, int r, byte c, int tile) {
+        int j = transit.add(k, x, y, dx, dy, r, c);
+        if (j == transitDest.length) transitDest = Arrays.copyOf(transitDest, j * 2);
+        transitDest[j] = tile;
+    }
+
+    // ----- Tick -----
+    /**
+     * Steps every tile and records where each of its bodies belongs now.
+     */
+    void step() {
+        int active = size - transit.size;
+        if (pool == null || active <= GRAIN) {
+            for (int t = 0; t < tiles.length; t++) stepTile(t);
+        } else {
+            pool.invoke(new StepTask(0, tiles.length));
+        }
+    }
+
+    /**
+     * Steps one tile and lists the bodies that left it; touches nothing outside the tile.
+     * A body whose center is still inside both the tile and the world stays, which is one
+     * bounds test; only bodies that crossed a border pay for the cull test and tile lookup.
+     */
+    private void stepTile(int t) {
+        BodyStore s = tiles[t];
+        int n = s.size;
+        leavers[t] = 0;
+        if (n == 0) return;
+        s.step();
+        int c = t % cols, r = t / cols;
+        int x0 = c * tileSize, x1 = Math.min((c + 1) * tileSize, worldW + 1) - 1;
+        int y0 = r * tileSize, y1 = Math.min((r + 1) * tileSize, worldH + 1) - 1;
+        int[] x = s.cx, y = s.cy;
+        for (int i = 0; i < n; i++) {
+            int xi = x[i], yi = y[i];
+            if (xi >= x0 && xi <= x1 && yi >= y0 && yi <= y1) continue;
+            int to = s.kind[i] != BodyStore.STAR && s.offScreen(i, worldW, worldH) ? CULL : tileOf(xi, yi);
+            if (to != t) leave(t, i, to);
+        }
+    }
+
+    private void leave(int t, int i, int to) {
+        int k = leavers[t]++;
+        if (k == leaving[t].length) {
+            leaving[t] = Arrays.copyOf(leaving[t], k * 2);
+            leavingTo[t] = Arrays.copyOf(leavingTo[t], k * 2);
+        }
+        leaving[t][k] = i;
+        leavingTo[t][k] = to;
+    }
+
+    /**
+     * Removes bodies that left the world, moves the ones that changed tile, and places this
+     * tick's additions. Returns how many bodies were culled. Call once after {@link #step}.
+     */
+    int handOff() {
+        int culled = 0;
+        for (int t = 0; t < tiles.length; t++) {
+            BodyStore s = tiles[t];
+            int[] at = leaving[t], to = leavingTo[t];
+            // highest index first: every leaver above i is already gone, so the body
+            // swapped into i's hole is one that stays
+            for (int k = leavers[t] - 1; k >= 0; k--) {
+                int i = at[k];
+                if (to[k] == CULL) culled++;
+                else toTransit(s.kind[i], s.cx[i], s.cy[i], s.vx[i], s.vy[i], s.radius[i], s.color[i], to[k]);
+                s.swapRemove(i);
+            }
+            leavers[t] = 0;
+        }
+        BodyStore m = transit;
+        for (int j = 0; j < m.size; j++) {
+            tiles[transitDest[j]].add(m.kind[j], m.cx[j], m.cy[j], m.vx[j], m.vy[j], m.radius[j], m.color[j]);
+        }
+        m.size = 0;
+        size -= culled;
+        return culled;
+    }
+
+    // ----- Reading -----
+    /**
+     * Copies the bodies of every tile that can reach into the given window of the world into
+     * the frame, shifted so the window's corner is the origin.
+     */
+    void collect(Frame f, int viewX, int viewY, int viewW, int viewH) {
+        int c0 = Math.max(0, Math.floorDiv(viewX - maxRadius, tileSize));
+        int c1 = Math.min(cols - 1, Math.floorDiv(viewX + viewW + maxRadius, tileSize));
+        int r0 = Math.max(0, Math.floorDiv(viewY - maxRadius, tileSize));
+        int r1 = Math.min(rows - 1, Math.floorDiv(viewY + viewH + maxRadius, tileSize));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                BodyStore s = tiles[r * cols + c];
+                for (int i = 0; i < s.size; i++) {
+                    f.add(s.cx[i] - viewX, s.cy[i] - viewY, s.radius[i], BodyStore.PALETTE[s.color[i]].getRGB());
+                }
+            }
+        }
+    }
+
+    /** Tile t's bodies; read between ticks only. */
+    BodyStore tile(int t) {
+        return tiles[t];
+    }
+
+    /** Steps a range of tiles, splitting down to single tiles. */
+    @SuppressWarnings("serial") // fork/join tasks are never serialized
+    private final class StepTask extends RecursiveAction {
+        private final int from, to;
+
+        StepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                stepTile(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new StepTask(from, mid), new StepTask(mid, to));
+        }
+    }
+}